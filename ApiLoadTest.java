@@ -0,0 +1,127 @@
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Load test for TaskApiServer: keeps `concurrency` requests in flight against a
+// server on loopback and reports throughput and latency percentiles. The mix is
+// 80% list queries, 10% creates, 5% completes and 5% single-task reads.
+// Starts its own server over a temporary store of `taskCount` tasks unless a
+// base URL is given.
+// Usage: java ApiLoadTest [requests] [concurrency] [taskCount] [baseUrl]
+public class ApiLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int taskCount = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        String baseUrl = args.length > 3 ? args[3] : null;
+
+        TaskApiServer server = null;
+        TaskStore store = null;
+        if (baseUrl == null) {
+            File file = File.createTempFile("tasks_loadtest", ".ser");
+            file.deleteOnExit();
+            file.delete();
+            store = new TaskStore(file.getPath(), file.getPath() + ".archive");
+            store.load(page -> { });
+            Random random = new Random(42);
+            for (int i = 0; i < taskCount; i++) {
+                store.add("Load test task #" + i, 1 + random.nextInt(3), LocalDate.now().plusDays(random.nextInt(60)));
+            }
+            server = new TaskApiServer(store, 0);
+            server.start();
+            baseUrl = "http://127.0.0.1:" + server.getPort();
+        }
+        List<Task> seedTasks = store != null ? store.getTasks() : List.of();
+
+        ExecutorService clientExecutor = TaskApiServer.newHandlerExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        // Warm-up, so JIT compilation does not land in the measurement
+        run(client, baseUrl, seedTasks, Math.min(requests, 5_000), Math.min(concurrency, 200), new long[Math.min(requests, 5_000)]);
+
+        long[] latencies = new long[requests];
+        long start = System.nanoTime();
+        int errors = run(client, baseUrl, seedTasks, requests, concurrency, latencies);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%,d requests, %,d concurrent, %,d errors in %.2f s%n", requests, concurrency, errors, seconds);
+        System.out.printf("Throughput: %,.0f req/s%n", requests / seconds);
+        System.out.printf("Latency ms: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                latencies[latencies.length - 1] / 1e6);
+
+        if (server != null) {
+            server.stop();
+        }
+        clientExecutor.shutdown();
+    }
+
+    private static int run(HttpClient client, String baseUrl, List<Task> seedTasks, int requests, int concurrency,
+            long[] latencies) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger errors = new AtomicInteger();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            client.sendAsync(nextRequest(baseUrl, seedTasks), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        done.await();
+        return errors.get();
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, List<Task> seedTasks) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        long id = seedTasks.isEmpty() ? 1 : seedTasks.get(random.nextInt(seedTasks.size())).getId();
+        if (roll < 80 || seedTasks.isEmpty()) {
+            String sort = roll % 2 == 0 ? "date" : "priority-desc";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/tasks?status=incomplete&sort=" + sort + "&limit=20")).build();
+        } else if (roll < 90) {
+            String body = "{\"value\":\"Created by load test\",\"priority\":2,\"completionDate\":\""
+                    + LocalDate.now().plusDays(random.nextInt(30)) + "\"}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/tasks"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        } else if (roll < 95) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/tasks/" + id + "/complete"))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        } else {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/tasks/" + id)).build();
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+}
@@ -9,19 +9,20 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.*;
+import java.io.IOException;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 public class ComplexToDoListApp extends JFrame {
 
-    private final DefaultListModel<Task> allTasksModel;
+    private final TaskStore taskStore;
+    private final TaskListModel allTasksModel;
     private JList<Task> taskList;
     private JTextArea taskField;
     private JComboBox<String> prioritySet;
@@ -29,11 +30,21 @@ public class ComplexToDoListApp extends JFrame {
     private JTextField taskKeyField;
     private JComboBox<String> statusSelect;
     private JComboBox<String> sort;
+    private JLabel summaryLabel; // Dashboard counts above the list
     
     // NEW FEATURE VARIABLES
     private JTextField taskIdField; // Hidden field to track task being edited (0 = new task)
     private JButton addButton; // Reference to change text/functionality
     private JButton cancelButton; // New button to cancel edit
+    private JComboBox<String> repeatSelect; // Repeat rule for new tasks and series
+    private LocalDate editingOccurrence; // Date of the series occurrence being edited, null otherwise
+
+    // Paged view: only the first viewLimit rows of the current query are materialized
+    private int viewLimit = VIEW_PAGE_SIZE;
+    private boolean hasMoreRows = false;
+    private DeadlineTray deadlineTray;
+    private long trayVersion = -1; // Store version the tray was last built from
+    private long viewVersion = -1; // Store version the list was last built from
 
     // --- Custom Colors and Fonts ---
     private static final Color PRIMARY_COLOR = new Color(52, 73, 94); // Dark Blue/Grey
@@ -43,6 +54,7 @@ public class ComplexToDoListApp extends JFrame {
     private static final Color WARNING_HOVER = new Color(230, 126, 34); // Darker Orange
     private static final Color BACKGROUND_COLOR = new Color(245, 245, 245); // Light Grey
     private static final Color ERROR_COLOR = new Color(231, 76, 60); // Flat Red
+    private static final Color SEARCH_ERROR_BACKGROUND = new Color(255, 220, 220); // Light Red
     private static final Font APP_FONT = new Font("Segoe UI", Font.PLAIN, 14);
     private static final Font TITLE_FONT = new Font("Segoe UI", Font.BOLD, 16);
     private static final Font LIST_FONT = new Font("Monospaced", Font.PLAIN, 13);
@@ -52,10 +64,32 @@ public class ComplexToDoListApp extends JFrame {
     private static final Color MEDIUM_PRIORITY_CUE = new Color(241, 196, 15); // Yellow
     private static final Color LOW_PRIORITY_CUE = new Color(39, 174, 96); // Green
 
-    private static final String FILE_NAME = "tasks_complex.ser";
+    static final String FILE_NAME = "tasks_complex.ser";
+    static final String ARCHIVE_FILE_NAME = "tasks_archive.dat";
+    // Completed tasks older than this move to the archive at startup
+    private static final int ARCHIVE_AFTER_DAYS = 30;
+    private static final String APP_TITLE = "Productivity Hub - Task Manager";
+    // Minimum gap between list refreshes while pages are still streaming in
+    private static final long LOAD_REFRESH_INTERVAL_MS = 500;
+    // Rows fetched per page of the list; more are fetched when scrolling near the end
+    private static final int VIEW_PAGE_SIZE = 200;
+    private static final int TRAY_DEADLINE_COUNT = 5;
+    private static final String REPEAT_HELP = "<html>none, daily, weekly, monthly, every N days|weeks|months<br>"
+            + "optionally followed by: until YYYY-MM-DD</html>";
+    private static final String SEARCH_HELP = "<html>Words match the description. Filters:<br>"
+            + "status:completed|incomplete &nbsp; priority:high, p:&gt;=2, p:low..medium<br>"
+            + "due:today, due:week, due:+7, due:&lt;2026-12-01, due:2026-10-01..2026-10-31 &nbsp; overdue<br>"
+            + "sort:date|priority|priority-asc|none</html>";
+    // Reminders fire at this time on the due date
+    private static final LocalTime REMINDER_TIME = LocalTime.of(9, 0);
+    // Local HTTP API port. Off unless -Dtodo.api.port=N is given: the API has no authentication,
+    // so while it runs any process of any user on this machine can read and edit the tasks.
+    private static final int API_PORT = Integer.getInteger("todo.api.port", -1);
+    // How often the list checks for changes made outside the UI (e.g. through the API)
+    private static final int EXTERNAL_REFRESH_MS = 250;
 
     public ComplexToDoListApp() {
-        super("Productivity Hub - Task Manager");
+        super(APP_TITLE);
         // Use a modern look and feel if available
         try {
             UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel");
@@ -68,10 +102,9 @@ public class ComplexToDoListApp extends JFrame {
         getContentPane().setBackground(BACKGROUND_COLOR);
         setLayout(new BorderLayout(15, 15)); // Increased gaps
 
-        allTasksModel = new DefaultListModel<>();
-        // Load tasks first before setting up the UI display
-        List<Task> loadedTasks = loadTasksFromFile();
-        loadedTasks.forEach(allTasksModel::addElement);
+        // Tasks are loaded in the background once the window is showing
+        taskStore = new TaskStore(FILE_NAME, ARCHIVE_FILE_NAME);
+        allTasksModel = new TaskListModel();
 
         // --- UI Setup ---
         JPanel inputPanel = createInputPanel();
@@ -83,12 +116,32 @@ public class ComplexToDoListApp extends JFrame {
         // --- Event Registration ---
         registerEvents();
 
+        deadlineTray = new DeadlineTray(APP_TITLE, ACCENT_COLOR, e -> {
+            setState(JFrame.NORMAL);
+            toFront();
+        });
+
         setSize(900, 700); // Slightly larger window
         setLocationRelativeTo(null);
         setVisible(true);
 
-        // Apply initial sorting/filtering after loading and setup
-        applyFilterAndSort();
+        // Reminders are registered before loading, so every loaded task gets scheduled
+        new ReminderScheduler(taskStore, Clock.systemDefaultZone(), REMINDER_TIME,
+                dueTasks -> SwingUtilities.invokeLater(() -> showReminders(dueTasks))).start();
+
+        // Queued snapshot writes must reach the disk before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(taskStore::flush));
+        startApiServer();
+        new Timer(EXTERNAL_REFRESH_MS, e -> {
+            if (taskStore.isLoaded() && taskStore.getVersion() != viewVersion) {
+                applyFilterAndSort();
+            } else {
+                updateSummary(); // Cheap; also picks up the date rolling over at midnight
+            }
+        }).start();
+
+        // Stream the task file in; the first page is the first screenful of the default view
+        new TaskLoader().execute();
     }
 
     // =================================================================
@@ -185,7 +238,24 @@ public class ComplexToDoListApp extends JFrame {
         gbc.gridy = 3;
         panel.add(datePanel, gbc);
 
-        // 4. Action Buttons (Add/Update and Cancel)
+        // 4. Repeat Rule (editable, e.g. "every 2 weeks until 2026-12-31")
+        repeatSelect = new JComboBox<>(new String[] { "None", "Daily", "Weekly", "Monthly", "Every 2 weeks" });
+        repeatSelect.setEditable(true);
+        repeatSelect.setFont(APP_FONT);
+        repeatSelect.setToolTipText(REPEAT_HELP);
+
+        JLabel repeatLabel = new JLabel("Repeat:");
+        repeatLabel.setFont(APP_FONT.deriveFont(Font.BOLD));
+
+        gbc.gridx = 2;
+        gbc.gridy = 2;
+        gbc.weightx = 0.2;
+        panel.add(repeatLabel, gbc);
+
+        gbc.gridy = 3;
+        panel.add(repeatSelect, gbc);
+
+        // 5. Action Buttons (Add/Update and Cancel)
         
         // Add/Update Button
         addButton = createStyledButton("Add Task", ACCENT_COLOR, ACCENT_HOVER, Color.WHITE);
@@ -202,9 +272,8 @@ public class ComplexToDoListApp extends JFrame {
         actionPanel.add(addButton);
         actionPanel.add(cancelButton);
 
-        gbc.gridx = 2;
+        gbc.gridx = 3;
         gbc.gridy = 3;
-        gbc.gridwidth = 2;
         gbc.weightx = 0.3;
         panel.add(actionPanel, gbc);
 
@@ -237,20 +306,21 @@ public class ComplexToDoListApp extends JFrame {
             taskKeyField.getBorder(), 
             BorderFactory.createEmptyBorder(5, 5, 5, 5)
         ));
+        taskKeyField.setToolTipText(SEARCH_HELP);
         taskKeyField.getDocument().addDocumentListener(new SimpleDocumentListener() {
             @Override
             public void update(DocumentEvent e) {
                 handleSearch();
             }
         });
-        topControls.add(new JLabel("Search Keyword:"));
+        topControls.add(new JLabel("Search / Query:"));
         topControls.add(taskKeyField);
 
         // Status Filter
         statusSelect = new JComboBox<>(new String[] { "all", "completed", "incomplete" });
         statusSelect.setFont(APP_FONT);
         statusSelect.setSelectedItem("incomplete"); // Default to incomplete
-        statusSelect.addActionListener(e -> applyFilterAndSort());
+        statusSelect.addActionListener(e -> handleViewChanged());
         topControls.add(new JLabel("Status:"));
         topControls.add(statusSelect);
 
@@ -258,20 +328,40 @@ public class ComplexToDoListApp extends JFrame {
         sort = new JComboBox<>(new String[] { "None", "High to Low (P)", "Low to High (P)", "Nearest Date" });
         sort.setFont(APP_FONT);
         sort.setSelectedItem("Nearest Date"); // Default to nearest date
-        sort.addActionListener(e -> applyFilterAndSort());
+        sort.addActionListener(e -> handleViewChanged());
         topControls.add(new JLabel("Sort By:"));
         topControls.add(sort);
 
-        panel.add(topControls, BorderLayout.NORTH);
+        // Summary Strip (counts are maintained by the store, so refreshing it is cheap)
+        summaryLabel = new JLabel(" ", SwingConstants.CENTER);
+        summaryLabel.setFont(APP_FONT);
+        summaryLabel.setForeground(PRIMARY_COLOR);
+        summaryLabel.setBorder(BorderFactory.createEmptyBorder(0, 5, 8, 5));
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.setBackground(BACKGROUND_COLOR);
+        header.add(topControls, BorderLayout.NORTH);
+        header.add(summaryLabel, BorderLayout.SOUTH);
+        panel.add(header, BorderLayout.NORTH);
 
         // --- Task List ---
         taskList = new JList<>(allTasksModel);
         taskList.setCellRenderer(new TaskCellRenderer());
         taskList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         taskList.setFont(LIST_FONT); // Use Monospaced for cleaner list view
+        // Fixed cell size, so the list never measures every row of a large store
+        taskList.setPrototypeCellValue(new Task(0, "A typical task description of moderate length", 3, LocalDate.now()));
 
         JScrollPane scrollPane = new JScrollPane(taskList);
         scrollPane.setBorder(BorderFactory.createLineBorder(PRIMARY_COLOR.brighter(), 1, true));
+        // Fetch the next page of rows when the user scrolls close to the end
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar bar = (JScrollBar) e.getAdjustable();
+            int remaining = bar.getMaximum() - (bar.getValue() + bar.getVisibleAmount());
+            if (hasMoreRows && !e.getValueIsAdjusting() && remaining < bar.getVisibleAmount()) {
+                loadMoreRows();
+            }
+        });
         panel.add(scrollPane, BorderLayout.CENTER);
 
         // --- Bottom Buttons (Edit, Delete, Clear All) ---
@@ -381,30 +471,39 @@ public class ComplexToDoListApp extends JFrame {
             return;
         }
 
+        Recurrence recurrence;
+        try {
+            recurrence = Recurrence.parse(String.valueOf(repeatSelect.getSelectedItem()), dueDate);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Input Error", JOptionPane.ERROR_MESSAGE);
+            repeatSelect.requestFocusInWindow();
+            return;
+        }
+
         // Get priority index (0=Low, 1=Medium, 2=High). Add 1 to get priority level (1-3)
         int priority = prioritySet.getSelectedIndex() + 1;
         long currentTaskId = Long.parseLong(taskIdField.getText());
 
-        List<Task> tasks = getTasksFromLocalStorage();
-        
         if (currentTaskId == 0) {
-            // --- ADD NEW TASK ---
-            Task taskObj = new Task(getUniqueId(), taskValue, priority, dueDate);
-            tasks.add(taskObj);
+            // --- ADD NEW TASK (or series) ---
+            taskStore.add(taskValue, priority, dueDate, recurrence);
             JOptionPane.showMessageDialog(this, "Task added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } else {
             // --- UPDATE EXISTING TASK ---
-            Optional<Task> existingTask = tasks.stream()
-                .filter(t -> t.getId() == currentTaskId)
-                .findFirst();
-
-            if (existingTask.isPresent()) {
-                Task taskToUpdate = existingTask.get();
-                // Replace the old task with a new, updated instance (as Task is immutable except for completion status)
-                tasks.remove(taskToUpdate);
-                Task updatedTask = new Task(currentTaskId, taskValue, priority, dueDate);
-                updatedTask.setCompleted(taskToUpdate.isCompleted()); // Maintain current completion status
-                tasks.add(updatedTask);
+            // The store replaces the old task with a new, updated instance (as Task is immutable except for completion status).
+            // A single occurrence of a series becomes a task of its own.
+            Task updatedTask;
+            try {
+                updatedTask = editingOccurrence != null
+                        ? taskStore.updateOccurrence(currentTaskId, editingOccurrence, taskValue, priority, dueDate)
+                        : taskStore.update(currentTaskId, taskValue, priority, dueDate, recurrence);
+            } catch (IllegalArgumentException e) {
+                // e.g. the series' skipped occurrences leave nothing pending from the new date on
+                JOptionPane.showMessageDialog(this, e.getMessage(), "Input Error", JOptionPane.ERROR_MESSAGE);
+                completionDateField.requestFocusInWindow();
+                return;
+            }
+            if (updatedTask != null) {
                 JOptionPane.showMessageDialog(this, "Task updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 handleCancelEdit(null); // Clear the edit state after successful update
             } else {
@@ -412,13 +511,11 @@ public class ComplexToDoListApp extends JFrame {
             }
         }
 
-        // Update persistence (file)
-        setTasksToLocalStorage(tasks);
-
         // Update UI
         taskField.setText("");
         completionDateField.setText(LocalDate.now().plusDays(1).toString()); // Reset due date
         prioritySet.setSelectedIndex(2); // Reset to High Priority
+        repeatSelect.setSelectedItem("None");
         applyFilterAndSort();
     }
 
@@ -431,12 +528,13 @@ public class ComplexToDoListApp extends JFrame {
         }
 
         // Modal/Confirmation Equivalent
+        String what = selectedTask.isRecurring() ? " every remaining occurrence of" : "";
         int confirm = JOptionPane.showConfirmDialog(this,
-                "Are you sure you want to delete: \"" + selectedTask.getValue() + "\"?",
+                "Are you sure you want to delete" + what + ": \"" + selectedTask.getValue() + "\"?",
                 "Confirm Delete", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            removeTaskFromLocalStorage(selectedTask.getId());
+            taskStore.remove(selectedTask.getId());
             applyFilterAndSort();
             handleCancelEdit(null); // Clear editing state if the task being edited was deleted
         }
@@ -451,12 +549,38 @@ public class ComplexToDoListApp extends JFrame {
             return;
         }
 
+        // A recurring row is one occurrence: edit just it, or the whole series
+        editingOccurrence = null;
+        if (selectedTask.isRecurring()) {
+            Object[] options = { "This Occurrence", "Whole Series", "Cancel" };
+            int choice = JOptionPane.showOptionDialog(this,
+                    "\"" + selectedTask.getValue() + "\" repeats " + selectedTask.getRecurrence() + ".\n"
+                            + "Edit only the occurrence due " + selectedTask.getCompletionDate() + ", or the whole series?",
+                    "Edit Recurring Task", JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE,
+                    null, options, options[0]);
+            if (choice == 0) {
+                editingOccurrence = selectedTask.getCompletionDate();
+            } else if (choice == 1) {
+                Task series = taskStore.find(selectedTask.getId());
+                if (series == null) {
+                    return; // Removed meanwhile
+                }
+                selectedTask = series; // Edit from its next occurrence
+            } else {
+                return;
+            }
+        }
+
         // 1. Populate Input Fields
         taskIdField.setText(String.valueOf(selectedTask.getId()));
         taskField.setText(selectedTask.getValue());
         // Priority is 1-based, ComboBox index is 0-based
         prioritySet.setSelectedIndex(selectedTask.getPriority() - 1); 
         completionDateField.setText(selectedTask.getCompletionDate().toString());
+        // An edited occurrence becomes a one-off task, so it has no rule of its own
+        repeatSelect.setSelectedItem(selectedTask.isRecurring() && editingOccurrence == null
+                ? selectedTask.getRecurrence().toString() : "None");
+        repeatSelect.setEnabled(editingOccurrence == null);
 
         // 2. Change Button/UI State
         addButton.setText("Update Task");
@@ -471,11 +595,14 @@ public class ComplexToDoListApp extends JFrame {
     private void handleCancelEdit(ActionEvent evt) {
         // 1. Reset Internal State
         taskIdField.setText("0");
+        editingOccurrence = null;
 
         // 2. Reset Input Fields
         taskField.setText("");
         completionDateField.setText(LocalDate.now().plusDays(1).toString());
         prioritySet.setSelectedIndex(2);
+        repeatSelect.setSelectedItem("None");
+        repeatSelect.setEnabled(true);
         
         // 3. Reset Button/UI State
         addButton.setText("Add Task");
@@ -489,23 +616,41 @@ public class ComplexToDoListApp extends JFrame {
         if (selectedTask == null)
             return;
 
-        // Toggle completion status
-        boolean newStatus = !selectedTask.isCompleted();
-        selectedTask.setCompleted(newStatus);
-
-        // Update persistence
-        List<Task> tasks = getTasksFromLocalStorage();
-        tasks.stream()
-                .filter(t -> t.getId() == selectedTask.getId())
-                .findFirst()
-                .ifPresent(t -> t.setCompleted(newStatus));
-        setTasksToLocalStorage(tasks);
+        // Toggle completion status (the store persists the change); a series occurrence becomes a completed task
+        if (selectedTask.isRecurring()) {
+            taskStore.completeOccurrence(selectedTask.getId(), selectedTask.getCompletionDate());
+        } else {
+            taskStore.setCompleted(selectedTask.getId(), !selectedTask.isCompleted());
+        }
 
         // Update UI
         applyFilterAndSort();
     }
 
+    private void showReminders(List<Task> dueTasks) {
+        String caption = dueTasks.size() == 1 ? "Task due today" : dueTasks.size() + " tasks due today";
+        StringBuilder text = new StringBuilder();
+        dueTasks.stream().limit(TRAY_DEADLINE_COUNT).forEach(t -> text.append(t.getValue()).append('\n'));
+        if (dueTasks.size() > TRAY_DEADLINE_COUNT) {
+            text.append(String.format("... and %d more", dueTasks.size() - TRAY_DEADLINE_COUNT));
+        }
+
+        if (!deadlineTray.showReminder(caption, text.toString().trim())) {
+            // No system tray: fall back to a non-modal dialog
+            JDialog dialog = new JOptionPane(text.toString().trim(), JOptionPane.INFORMATION_MESSAGE)
+                    .createDialog(this, caption);
+            dialog.setModal(false);
+            dialog.setVisible(true);
+        }
+    }
+
     private void handleSearch() {
+        handleViewChanged();
+    }
+
+    // A new filter/sort starts again from the first page
+    private void handleViewChanged() {
+        viewLimit = VIEW_PAGE_SIZE;
         applyFilterAndSort();
     }
 
@@ -515,9 +660,8 @@ public class ComplexToDoListApp extends JFrame {
                 "Confirm Clear All", JOptionPane.YES_NO_OPTION, JOptionPane.ERROR_MESSAGE);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            setTasksToLocalStorage(new ArrayList<>());
-            // Update UI by clearing the model and reapplying filter/sort logic
-            allTasksModel.clear(); 
+            taskStore.clear();
+            // Update UI by reapplying filter/sort logic
             applyFilterAndSort();
             handleCancelEdit(null); // Reset edit state
         }
@@ -527,110 +671,192 @@ public class ComplexToDoListApp extends JFrame {
     // SORTING & FILTERING
     // =================================================================
 
+    private void startApiServer() {
+        if (API_PORT < 0) {
+            return;
+        }
+        try {
+            new TaskApiServer(taskStore, API_PORT).start();
+        } catch (IOException e) {
+            System.err.println("Error starting task API on port " + API_PORT + ": " + e.getMessage());
+        }
+    }
+
     private void applyFilterAndSort() {
-        List<Task> tasks = getTasksFromLocalStorage();
+        viewVersion = taskStore.getVersion();
+        Task selectedTask = taskList.getSelectedValue();
+
+        // 1. Query the first viewLimit rows (plus one, to know whether there are more)
+        List<Task> visibleTasks = queryView(viewLimit + 1);
+        if (visibleTasks == null) {
+            return; // Invalid search query: keep the current rows
+        }
+        hasMoreRows = visibleTasks.size() > viewLimit;
+        if (hasMoreRows) {
+            visibleTasks.remove(viewLimit);
+        }
+
+        // 2. Update List Model (one event for the whole list), keeping the selection if still shown
+        allTasksModel.setTasks(visibleTasks);
+        if (selectedTask != null) {
+            for (int i = 0; i < visibleTasks.size(); i++) {
+                // Occurrences of a series share its id, so match the date as well
+                Task task = visibleTasks.get(i);
+                if (task.getId() == selectedTask.getId()
+                        && (!task.isRecurring() || task.getCompletionDate().equals(selectedTask.getCompletionDate()))) {
+                    taskList.setSelectedIndex(i);
+                    break;
+                }
+            }
+        }
+        updateDeadlineTray();
+        updateSummary();
+    }
+
+    private void loadMoreRows() {
+        int shown = allTasksModel.getSize();
+        viewLimit = shown + VIEW_PAGE_SIZE;
+        List<Task> visibleTasks = queryView(viewLimit + 1);
+        if (visibleTasks == null) {
+            return;
+        }
+        hasMoreRows = visibleTasks.size() > viewLimit;
+        if (hasMoreRows) {
+            visibleTasks.remove(viewLimit);
+        }
+        // Append only the new rows so selection and scroll position are kept
+        allTasksModel.appendTasks(visibleTasks.subList(Math.min(shown, visibleTasks.size()), visibleTasks.size()));
+    }
+
+    // The first `limit` tasks of the current view, or null if the search box holds an invalid query.
+    // The status and sort selectors come first, so clauses typed in the search box override them.
+    private List<Task> queryView(int limit) {
         String currentStatus = (String) statusSelect.getSelectedItem();
         String currentSort = (String) sort.getSelectedItem();
-        String searchKey = taskKeyField.getText().trim().toLowerCase();
-
-        // 1. Filter by Status and Search Key
-        List<Task> filteredTasks = tasks.stream()
-                .filter(task -> {
-                    boolean statusMatch;
-
-                    switch (currentStatus) {
-                        case "completed":
-                            statusMatch = task.isCompleted();
-                            break;
-                        case "incomplete":
-                            statusMatch = !task.isCompleted();
-                            break;
-                        default:
-                            statusMatch = true; // "all"
-                            break;
-                    }
-
-                    boolean searchMatch = task.getValue().toLowerCase().contains(searchKey);
-                    return statusMatch && searchMatch;
-                })
-                .collect(Collectors.toList());
-
-        // 2. Sort
-        Comparator<Task> comparator;
+        TaskQuery.Sort sortOrder;
 
         switch (currentSort) {
             case "High to Low (P)":
-                // Highest priority (3) first
-                comparator = Comparator.comparing(Task::getPriority).reversed(); 
+                sortOrder = TaskQuery.Sort.PRIORITY_DESC;
                 break;
             case "Low to High (P)":
-                // Lowest priority (1) first
-                comparator = Comparator.comparing(Task::getPriority);
+                sortOrder = TaskQuery.Sort.PRIORITY_ASC;
                 break;
             case "Nearest Date":
-                // Use the custom comparator from Task.java
-                comparator = Task.getComparatorByDate();
+                sortOrder = TaskQuery.Sort.DATE;
                 break;
             default:
-                comparator = (t1, t2) -> 0; // "None" (maintain insertion order)
+                sortOrder = TaskQuery.Sort.NONE; // "None" (maintain insertion order)
                 break;
         }
 
-        filteredTasks.sort(comparator);
+        TaskQuery query = new TaskQuery()
+                .status(TaskQuery.parseStatus(currentStatus))
+                .sort(sortOrder);
+        try {
+            query.apply(taskKeyField.getText(), LocalDate.now());
+        } catch (IllegalArgumentException e) {
+            taskKeyField.setBackground(SEARCH_ERROR_BACKGROUND);
+            taskKeyField.setToolTipText(e.getMessage());
+            return null;
+        }
+        taskKeyField.setBackground(Color.WHITE);
+        taskKeyField.setToolTipText(SEARCH_HELP);
+
+        return taskStore.query(query, limit);
+    }
+
+    private void updateSummary() {
+        TaskCounters.Counts counts = taskStore.getCounts();
+        summaryLabel.setText(String.format(
+                "<html>Open: <b>%d</b> (High %d, Medium %d, Low %d) &nbsp;|&nbsp; "
+                        + "<font color='#e74c3c'>Overdue: <b>%d</b></font> &nbsp;|&nbsp; Due today: <b>%d</b> &nbsp;|&nbsp; "
+                        + "Next %d days: <b>%d</b> &nbsp;|&nbsp; Completed: <b>%d</b> (+%d archived)</html>",
+                counts.incomplete, counts.incompleteWithPriority(3), counts.incompleteWithPriority(2),
+                counts.incompleteWithPriority(1), counts.overdue, counts.dueToday,
+                TaskCounters.DUE_SOON_DAYS, counts.dueSoon, counts.completed, counts.archived));
+    }
 
-        // 3. Update List Model
-        allTasksModel.clear();
-        filteredTasks.forEach(allTasksModel::addElement);
+    private void updateDeadlineTray() {
+        long version = taskStore.getVersion();
+        if (version != trayVersion) {
+            trayVersion = version;
+            deadlineTray.update(taskStore.nextDeadlines(TRAY_DEADLINE_COUNT));
+        }
     }
 
     // =================================================================
     // UTILITIES AND PERSISTENCE
     // =================================================================
 
-    private long getUniqueId() {
-        // Ensure ID is greater than any existing ID for uniqueness upon creation
-        long maxId = getTasksFromLocalStorage().stream()
-                .mapToLong(Task::getId)
-                .max()
-                .orElse(0L);
-        return Math.max(maxId + 1, System.currentTimeMillis() + Math.round(Math.random() * 1000));
-    }
-    
-    // Suppress the unchecked cast warning related to file deserialization
-    @SuppressWarnings("unchecked") 
-    private List<Task> loadTasksFromFile() {
-        File file = new File(FILE_NAME);
-        if (file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                Object obj = ois.readObject();
-                if (obj instanceof List) {
-                    return (List<Task>) obj;
-                }
-            } catch (IOException | ClassNotFoundException e) {
-                System.err.println("Error loading tasks: " + e.getMessage());
+    // Loads the task file page by page off the EDT, refreshing the list as pages arrive
+    private class TaskLoader extends SwingWorker<Void, List<Task>> {
+        private int loadedCount = 0;
+        private long lastRefresh = 0;
+
+        @Override
+        protected Void doInBackground() {
+            taskStore.load(page -> publish(page));
+            taskStore.archiveCompletedBefore(LocalDate.now().minusDays(ARCHIVE_AFTER_DAYS));
+            return null;
+        }
+
+        @Override
+        protected void process(List<List<Task>> pages) {
+            for (List<Task> page : pages) {
+                loadedCount += page.size();
+            }
+            setTitle(String.format("%s (loading... %,d tasks)", APP_TITLE, loadedCount));
+
+            // Show the first page right away, then refresh at most every LOAD_REFRESH_INTERVAL_MS
+            long now = System.currentTimeMillis();
+            if (lastRefresh == 0 || now - lastRefresh >= LOAD_REFRESH_INTERVAL_MS) {
+                applyFilterAndSort();
+                lastRefresh = now;
             }
         }
-        return new ArrayList<>();
-    }
 
-    private List<Task> getTasksFromLocalStorage() {
-        return loadTasksFromFile(); 
+        @Override
+        protected void done() {
+            setTitle(APP_TITLE);
+            applyFilterAndSort();
+        }
     }
 
-    private void setTasksToLocalStorage(List<Task> tasks) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_NAME))) {
-            oos.writeObject(tasks);
-        } catch (IOException e) {
-            System.err.println("Error saving tasks: " + e.getMessage());
+    // List model backed by a plain list, so a refresh fires one event instead of one per row
+    private static class TaskListModel extends AbstractListModel<Task> {
+        private static final long serialVersionUID = 1L;
+        private List<Task> tasks = new ArrayList<>();
+
+        @Override
+        public int getSize() {
+            return tasks.size();
+        }
+
+        @Override
+        public Task getElementAt(int index) {
+            return tasks.get(index);
+        }
+
+        void appendTasks(List<Task> moreTasks) {
+            if (moreTasks.isEmpty()) {
+                return;
+            }
+            int oldSize = tasks.size();
+            tasks.addAll(moreTasks);
+            fireIntervalAdded(this, oldSize, tasks.size() - 1);
         }
-    }
 
-    private void removeTaskFromLocalStorage(long taskId) {
-        List<Task> tasks = getTasksFromLocalStorage();
-        List<Task> filteredTasks = tasks.stream()
-                .filter(task -> taskId != task.getId())
-                .collect(Collectors.toList());
-        setTasksToLocalStorage(filteredTasks);
+        void setTasks(List<Task> newTasks) {
+            int oldSize = tasks.size();
+            tasks = newTasks;
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+            if (!newTasks.isEmpty()) {
+                fireIntervalAdded(this, 0, newTasks.size() - 1);
+            }
+        }
     }
 
     // =================================================================
@@ -713,6 +939,9 @@ public class ComplexToDoListApp extends JFrame {
             String taskDescription = task.getValue();
             
             String taskText = String.format("%s | %s", dateString, taskDescription);
+            if (task.isRecurring()) {
+                taskText += " (repeats " + task.getRecurrence() + ")";
+            }
 
             JLabel taskDetailsLabel = new JLabel(taskText);
             taskDetailsLabel.setFont(LIST_FONT);
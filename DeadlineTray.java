@@ -0,0 +1,74 @@
+import java.awt.*;
+import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+// System tray icon whose menu lists the next N deadlines. Does nothing on
+// platforms without a system tray.
+class DeadlineTray {
+    private final TrayIcon trayIcon; // null when the tray is unsupported
+    private final PopupMenu menu = new PopupMenu();
+    private final ActionListener openAction;
+
+    DeadlineTray(String title, Color iconColor, ActionListener openAction) {
+        this.openAction = openAction;
+        TrayIcon icon = null;
+        if (SystemTray.isSupported()) {
+            icon = new TrayIcon(createIconImage(iconColor), title, menu);
+            icon.setImageAutoSize(true);
+            icon.addActionListener(openAction); // Double-click on the icon
+            try {
+                SystemTray.getSystemTray().add(icon);
+            } catch (AWTException e) {
+                System.err.println("Error adding tray icon: " + e.getMessage());
+                icon = null;
+            }
+        }
+        this.trayIcon = icon;
+    }
+
+    // Rebuilds the menu from the given deadlines (nearest first)
+    void update(List<Task> deadlines) {
+        if (trayIcon == null) {
+            return;
+        }
+        menu.removeAll();
+        if (deadlines.isEmpty()) {
+            MenuItem none = new MenuItem("No upcoming deadlines");
+            none.setEnabled(false);
+            menu.add(none);
+        }
+        for (Task task : deadlines) {
+            MenuItem item = new MenuItem(String.format("%s | %s", task.getCompletionDate(), task.getValue()));
+            item.addActionListener(openAction);
+            menu.add(item);
+        }
+        menu.addSeparator();
+        MenuItem open = new MenuItem("Open Task Manager");
+        open.addActionListener(openAction);
+        menu.add(open);
+
+        trayIcon.setToolTip(deadlines.isEmpty()
+                ? "No upcoming deadlines"
+                : String.format("Next due: %s (%s)", deadlines.get(0).getValue(), deadlines.get(0).getCompletionDate()));
+    }
+
+    // Pops up a tray notification; returns false when there is no tray to show it in
+    boolean showReminder(String caption, String text) {
+        if (trayIcon == null) {
+            return false;
+        }
+        trayIcon.displayMessage(caption, text, TrayIcon.MessageType.INFO);
+        return true;
+    }
+
+    private static Image createIconImage(Color color) {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(color);
+        g.fillOval(1, 1, 14, 14);
+        g.dispose();
+        return image;
+    }
+}
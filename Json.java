@@ -0,0 +1,224 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Just enough JSON for the task API: writing tasks, and parsing flat request
+// objects whose values are strings, numbers, booleans or null. Non-string
+// values are returned as their literal text.
+class Json {
+
+    private Json() {
+    }
+
+    static String task(Task task) {
+        return "{\"id\":" + task.getId()
+                + ",\"value\":" + quote(task.getValue())
+                + ",\"priority\":" + task.getPriority()
+                + ",\"priorityLabel\":" + quote(task.getPriorityString())
+                + ",\"completionDate\":" + quote(String.valueOf(task.getCompletionDate()))
+                + ",\"completed\":" + task.isCompleted()
+                + ",\"completedAt\":" + (task.getCompletedAt() == null ? "null" : quote(task.getCompletedAt().toString()))
+                + ",\"recurrence\":" + (task.isRecurring() ? quote(task.getRecurrence().toString()) : "null")
+                + "}";
+    }
+
+    static String tasks(List<Task> tasks) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(task(tasks.get(i)));
+        }
+        return json.append(']').toString();
+    }
+
+    static String counts(TaskCounters.Counts counts) {
+        return "{\"incomplete\":" + counts.incomplete
+                + ",\"completed\":" + counts.completed
+                + ",\"archived\":" + counts.archived
+                + ",\"incompleteByPriority\":{\"high\":" + counts.incompleteWithPriority(3)
+                + ",\"medium\":" + counts.incompleteWithPriority(2)
+                + ",\"low\":" + counts.incompleteWithPriority(1) + "}"
+                + ",\"overdue\":" + counts.overdue
+                + ",\"dueToday\":" + counts.dueToday
+                + ",\"dueSoon\":" + counts.dueSoon
+                + "}";
+    }
+
+    static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    static String quote(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                    break;
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    static Map<String, String> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, String> result = parser.object();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw parser.error("Unexpected trailing content");
+        }
+        return result;
+    }
+
+    private static class Parser {
+        private final String text;
+        private int pos = 0;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> object() {
+            Map<String, String> result = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return result;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                result.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return result;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private String value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false") || literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                return literal;
+            }
+            throw error("Unsupported value");
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Bad unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Bad unicode escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        value.append(escaped); // \" \\ \/
+                        break;
+                }
+            }
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+// Repeat rule of a recurring task series: every `interval` days, weeks or months
+// from `start`, optionally until a last date. Dates that already became tasks of
+// their own are skipped. Occurrences are computed, never stored, so finding the
+// one on or after a date costs the same however far away it is.
+//
+//   daily  weekly  monthly  every 3 days  every 2 weeks  every 6 months
+//   ... until 2026-12-31
+//
+// Immutable; the store replaces a series' rule as occurrences are materialized.
+class Recurrence implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    enum Unit { DAYS, WEEKS, MONTHS }
+
+    private final LocalDate start;
+    private final Unit unit;
+    private final int interval;
+    private final LocalDate until; // Inclusive, null = forever
+    private final TreeSet<LocalDate> skipped; // Materialized occurrences after the series' next one
+
+    Recurrence(LocalDate start, Unit unit, int interval, LocalDate until) {
+        this(start, unit, interval, until, new TreeSet<>());
+    }
+
+    private Recurrence(LocalDate start, Unit unit, int interval, LocalDate until, TreeSet<LocalDate> skipped) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Repeat interval must be at least 1");
+        }
+        this.start = start;
+        this.unit = unit;
+        this.interval = interval;
+        this.until = until;
+        this.skipped = skipped;
+    }
+
+    // Parses a rule starting on `start`; returns null for "", "none" or "never"
+    static Recurrence parse(String text, LocalDate start) {
+        String rule = text == null ? "" : text.trim().toLowerCase();
+        LocalDate until = null;
+        int untilAt = rule.indexOf(" until ");
+        if (untilAt >= 0) {
+            String date = rule.substring(untilAt + " until ".length()).trim();
+            try {
+                until = LocalDate.parse(date);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid repeat end date '" + date + "' (use YYYY-MM-DD)");
+            }
+            rule = rule.substring(0, untilAt).trim();
+            if (until.isBefore(start)) {
+                throw new IllegalArgumentException("Repeat end date " + until + " is before the first date " + start);
+            }
+        }
+
+        switch (rule) {
+            case "":
+            case "none":
+            case "never":
+                if (until != null) {
+                    throw new IllegalArgumentException("'until' needs a repeat rule, e.g. weekly until " + until);
+                }
+                return null;
+            case "daily":
+                return new Recurrence(start, Unit.DAYS, 1, until);
+            case "weekly":
+                return new Recurrence(start, Unit.WEEKS, 1, until);
+            case "monthly":
+                return new Recurrence(start, Unit.MONTHS, 1, until);
+            default:
+                break;
+        }
+        String[] words = rule.split("\\s+");
+        if (words.length == 3 && words[0].equals("every")) {
+            Unit unit = parseUnit(words[2]);
+            try {
+                return new Recurrence(start, unit, Integer.parseInt(words[1]), until);
+            } catch (NumberFormatException e) {
+                // Fall through to the error below
+            }
+        }
+        throw new IllegalArgumentException("Unknown repeat rule '" + text.trim()
+                + "' (use daily, weekly, monthly or every N days|weeks|months, optionally until YYYY-MM-DD)");
+    }
+
+    private static Unit parseUnit(String word) {
+        switch (word) {
+            case "day":
+            case "days":
+                return Unit.DAYS;
+            case "week":
+            case "weeks":
+                return Unit.WEEKS;
+            case "month":
+            case "months":
+                return Unit.MONTHS;
+            default:
+                throw new IllegalArgumentException("Unknown repeat unit '" + word + "' (use days, weeks or months)");
+        }
+    }
+
+    // =================================================================
+    // OCCURRENCES
+    // =================================================================
+
+    LocalDate getStart() {
+        return start;
+    }
+
+    LocalDate getUntil() {
+        return until;
+    }
+
+    // The first occurrence on or after day that is still pending, or null if the series ends before it
+    LocalDate nextOnOrAfter(LocalDate day) {
+        long n = firstIndexOnOrAfter(day.isBefore(start) ? start : day);
+        while (true) {
+            LocalDate date = occurrence(n);
+            if (until != null && date.isAfter(until)) {
+                return null;
+            }
+            if (!skipped.contains(date)) {
+                return date;
+            }
+            n++;
+        }
+    }
+
+    // Whether day is a pending occurrence (for days from the series' next occurrence on)
+    boolean occursOn(LocalDate day) {
+        return day.equals(nextOnOrAfter(day));
+    }
+
+    // Pending occurrences in [from, to] in date order, computed as they are iterated;
+    // to may be null for an endless series, so stop early
+    Iterable<LocalDate> between(LocalDate from, LocalDate to) {
+        return () -> new Iterator<LocalDate>() {
+            private LocalDate next = bounded(nextOnOrAfter(from));
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public LocalDate next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                LocalDate current = next;
+                next = bounded(nextOnOrAfter(current.plusDays(1)));
+                return current;
+            }
+
+            private LocalDate bounded(LocalDate date) {
+                return date == null || (to != null && date.isAfter(to)) ? null : date;
+            }
+        };
+    }
+
+    // Monthly dates are counted from start, so a series on the 31st comes back to the 31st
+    private LocalDate occurrence(long n) {
+        switch (unit) {
+            case DAYS:
+                return start.plusDays(n * interval);
+            case WEEKS:
+                return start.plusWeeks(n * interval);
+            default:
+                return start.plusMonths(n * interval);
+        }
+    }
+
+    private long firstIndexOnOrAfter(LocalDate day) {
+        long elapsed = unit == Unit.MONTHS
+                ? ChronoUnit.MONTHS.between(start, day)
+                : ChronoUnit.DAYS.between(start, day) / (unit == Unit.WEEKS ? 7 : 1);
+        long n = elapsed / interval;
+        while (occurrence(n).isBefore(day)) {
+            n++;
+        }
+        return n;
+    }
+
+    // =================================================================
+    // DERIVED RULES
+    // =================================================================
+
+    // The same rule anchored at a new first date. Dates from newStart on that already became tasks,
+    // under this rule or under previous (the rule it replaces, may be null), stay skipped.
+    Recurrence startingOn(LocalDate newStart, Recurrence previous) {
+        TreeSet<LocalDate> newSkipped = new TreeSet<>(skipped.tailSet(newStart));
+        if (previous != null) {
+            newSkipped.addAll(previous.skipped.tailSet(newStart));
+        }
+        return new Recurrence(newStart, unit, interval, until, newSkipped);
+    }
+
+    // The rule once day has become a task of its own, leaving `next` as the series' next
+    // occurrence (null if none). Skipped dates before `next` can no longer come up and are dropped.
+    Recurrence without(LocalDate day, LocalDate next) {
+        TreeSet<LocalDate> newSkipped = new TreeSet<>(next == null ? skipped : skipped.tailSet(next));
+        if (next == null || day.isAfter(next)) {
+            newSkipped.add(day);
+        }
+        return new Recurrence(start, unit, interval, until, newSkipped);
+    }
+
+    // The rule as parse() reads it
+    @Override
+    public String toString() {
+        String rule;
+        if (interval == 1) {
+            rule = unit == Unit.DAYS ? "daily" : unit == Unit.WEEKS ? "weekly" : "monthly";
+        } else {
+            rule = "every " + interval + " " + unit.name().toLowerCase();
+        }
+        return until == null ? rule : rule + " until " + until;
+    }
+}
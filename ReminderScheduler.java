@@ -0,0 +1,284 @@
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Fires a reminder at reminderTime on the due date of every incomplete task,
+// and of every pending occurrence of a recurring series.
+//
+// Two-level timing wheel: the inner level holds one slot per day for the next
+// HORIZON_DAYS days (task ids only); everything further out stays in the store
+// and is cascaded in once a day, through the store's due-date index, when the horizon slides. Memory is therefore
+// bounded by the tasks due within the horizon, not by the size of the store,
+// and the worker thread sleeps until the next slot is due instead of polling.
+// A series sits in the slot of each of its occurrences within the horizon.
+// The clock is injectable; tests can drive fireDue() directly.
+class ReminderScheduler implements TaskStore.Listener {
+    static final int HORIZON_DAYS = 7;
+    // Upper bound on one sleep, so wall-clock jumps (suspend, clock changes) are noticed
+    private static final long MAX_SLEEP_MS = 60 * 60 * 1000;
+
+    interface Callback {
+        void remind(List<Task> dueTasks);
+    }
+
+    private final TaskStore store;
+    private final Clock clock;
+    private final LocalTime reminderTime;
+    private final Callback callback;
+
+    private final TreeMap<LocalDate, Set<Long>> slots = new TreeMap<>();
+    private final Map<Long, LocalDate> slotByTask = new HashMap<>();
+    private final Map<Long, Set<LocalDate>> slotsBySeries = new HashMap<>();
+    private LocalDate nextDay; // First day whose reminders have not fired yet
+    private LocalDate horizonEnd; // Exclusive end of the inner wheel
+    private Thread worker;
+    private boolean running = false;
+
+    ReminderScheduler(TaskStore store, Clock clock, LocalTime reminderTime, Callback callback) {
+        this.store = store;
+        this.clock = clock;
+        this.reminderTime = reminderTime;
+        this.callback = callback;
+        // Tasks due today still get their reminder, even when starting after reminderTime
+        this.nextDay = LocalDate.now(clock);
+        this.horizonEnd = nextDay.plusDays(HORIZON_DAYS);
+    }
+
+    // Registers with the store (picking up tasks already loaded) and starts the worker thread
+    void start() {
+        store.addListener(this);
+        LocalDate from;
+        LocalDate to;
+        synchronized (this) {
+            from = nextDay;
+            to = horizonEnd;
+        }
+        scheduleAll(store.query(dueBetween(from, to), Integer.MAX_VALUE));
+
+        synchronized (this) {
+            running = true;
+        }
+        worker = new Thread(this::runWorker, "reminder-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void stop() {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+    }
+
+    // Reminders currently slotted
+    synchronized int size() {
+        int size = slotByTask.size();
+        for (Set<LocalDate> days : slotsBySeries.values()) {
+            size += days.size();
+        }
+        return size;
+    }
+
+    // Fires every slot that is due at the clock's current time and slides the horizon
+    void fireDue() {
+        Map<Long, LocalDate> dueIds = new LinkedHashMap<>(); // Task id -> day it fired for
+        LocalDate cascadeFrom = null;
+        LocalDate cascadeTo = null;
+        synchronized (this) {
+            Instant now = clock.instant();
+            while (!fireInstant(nextDay).isAfter(now)) {
+                Set<Long> ids = slots.remove(nextDay);
+                if (ids != null) {
+                    for (long id : ids) {
+                        dueIds.put(id, nextDay);
+                        forget(id, nextDay);
+                    }
+                }
+                nextDay = nextDay.plusDays(1);
+            }
+            // Nothing may linger before nextDay (e.g. after a large clock jump)
+            while (!slots.isEmpty() && slots.firstKey().isBefore(nextDay)) {
+                Map.Entry<LocalDate, Set<Long>> slot = slots.pollFirstEntry();
+                slot.getValue().forEach(id -> forget(id, slot.getKey()));
+            }
+            LocalDate newHorizonEnd = nextDay.plusDays(HORIZON_DAYS);
+            if (newHorizonEnd.isAfter(horizonEnd)) {
+                cascadeFrom = horizonEnd.isBefore(nextDay) ? nextDay : horizonEnd;
+                cascadeTo = newHorizonEnd;
+                horizonEnd = newHorizonEnd;
+            }
+        }
+
+        // Touch the store outside our lock: the store calls into us while holding its own
+        if (cascadeFrom != null) {
+            LocalDate from = cascadeFrom;
+            LocalDate to = cascadeTo;
+            scheduleAll(store.query(dueBetween(from, to), Integer.MAX_VALUE));
+        }
+        if (!dueIds.isEmpty()) {
+            // Re-check against the store: the task may have changed since it was slotted
+            List<Task> dueTasks = new ArrayList<>();
+            LocalDate today = LocalDate.now(clock);
+            for (Map.Entry<Long, LocalDate> due : dueIds.entrySet()) {
+                Task task = store.find(due.getKey());
+                if (task == null || task.isCompleted()) {
+                    continue;
+                }
+                if (task.isRecurring()) {
+                    // Still pending, i.e. not completed or edited into a task of its own meanwhile
+                    LocalDate day = due.getValue();
+                    if (!day.isBefore(task.getCompletionDate()) && task.getRecurrence().occursOn(day)) {
+                        dueTasks.add(task.occurrenceOn(day));
+                    }
+                } else if (task.getCompletionDate().isAfter(today)) {
+                    taskAdded(task); // Moved to a later day by a racing edit
+                } else {
+                    dueTasks.add(task);
+                }
+            }
+            if (!dueTasks.isEmpty()) {
+                callback.remind(dueTasks);
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            fireDue();
+            synchronized (this) {
+                if (!running) {
+                    return;
+                }
+                // Every slotted day is >= nextDay, so its fire time is the next wake-up
+                long sleepMs = fireInstant(nextDay).toEpochMilli() - clock.millis();
+                if (sleepMs > 0) {
+                    try {
+                        wait(Math.min(sleepMs, MAX_SLEEP_MS));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // --- TaskStore.Listener ---
+
+    @Override
+    public synchronized void taskAdded(Task task) {
+        if (!task.isCompleted()) {
+            schedule(task);
+        }
+    }
+
+    @Override
+    public synchronized void taskRemoved(Task task) {
+        unschedule(task.getId());
+    }
+
+    @Override
+    public synchronized void taskCompletionChanged(Task task, boolean wasCompleted) {
+        if (task.isCompleted()) {
+            unschedule(task.getId());
+        } else {
+            schedule(task);
+        }
+    }
+
+    @Override
+    public synchronized void tasksCleared() {
+        slots.clear();
+        slotByTask.clear();
+        slotsBySeries.clear();
+    }
+
+    private synchronized void scheduleAll(List<Task> tasks) {
+        tasks.forEach(this::schedule);
+    }
+
+    // --- Wheel operations (caller holds the lock) ---
+
+    private void schedule(Task task) {
+        if (task.isRecurring()) {
+            scheduleSeries(task);
+            return;
+        }
+        if (!inRange(task, nextDay, horizonEnd)) {
+            return; // Already past, or picked up by a later cascade
+        }
+        unschedule(task.getId());
+        LocalDate day = task.getCompletionDate();
+        slots.computeIfAbsent(day, d -> new HashSet<>()).add(task.getId());
+        slotByTask.put(task.getId(), day);
+    }
+
+    // Slots the occurrences due within the horizon, from the given one (the series' next, or one
+    // a cascade query produced) on; occurrences are computed from the rule, not stored
+    private void scheduleSeries(Task occurrence) {
+        LocalDate from = occurrence.getCompletionDate().isBefore(nextDay) ? nextDay : occurrence.getCompletionDate();
+        for (LocalDate day : occurrence.getRecurrence().between(from, horizonEnd.minusDays(1))) {
+            slots.computeIfAbsent(day, d -> new HashSet<>()).add(occurrence.getId());
+            slotsBySeries.computeIfAbsent(occurrence.getId(), id -> new HashSet<>()).add(day);
+        }
+    }
+
+    private void unschedule(long id) {
+        Set<LocalDate> seriesDays = slotsBySeries.remove(id);
+        if (seriesDays != null) {
+            seriesDays.forEach(day -> removeFromSlot(id, day));
+        }
+        LocalDate day = slotByTask.remove(id);
+        if (day != null) {
+            removeFromSlot(id, day);
+        }
+    }
+
+    private void removeFromSlot(long id, LocalDate day) {
+        Set<Long> ids = slots.get(day);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            slots.remove(day);
+        }
+    }
+
+    // Drops the bookkeeping for a slot that has already been taken off the wheel
+    private void forget(long id, LocalDate day) {
+        Set<LocalDate> seriesDays = slotsBySeries.get(id);
+        if (seriesDays != null && seriesDays.remove(day)) {
+            if (seriesDays.isEmpty()) {
+                slotsBySeries.remove(id);
+            }
+        } else {
+            slotByTask.remove(id);
+        }
+    }
+
+    // Incomplete tasks due in [from, to): answered from the store's due-date index
+    private static TaskQuery dueBetween(LocalDate from, LocalDate to) {
+        return new TaskQuery()
+                .status(TaskQuery.Status.INCOMPLETE)
+                .due(from, to.minusDays(1))
+                .sort(TaskQuery.Sort.DATE);
+    }
+
+    private static boolean inRange(Task task, LocalDate from, LocalDate to) {
+        LocalDate day = task.getCompletionDate();
+        return !day.isBefore(from) && day.isBefore(to);
+    }
+
+    private Instant fireInstant(LocalDate day) {
+        return day.atTime(reminderTime).atZone(clock.getZone()).toInstant();
+    }
+}
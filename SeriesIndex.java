@@ -0,0 +1,190 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+// Recurring series in the store's hot set, kept up to date as a store listener.
+// A series is stored once, as a Task due on its next pending occurrence; its
+// later occurrences only exist while a query iterates over them. Merging them
+// into a date-ordered walk holds one cursor per series, so "Nearest Date" views
+// page through series of any length without expanding them.
+class SeriesIndex implements TaskStore.Listener {
+    private static final Comparator<Task> DATE_ORDER = Task.getComparatorByDate().thenComparing(Task::getId);
+
+    // By id, so a series keeps its place in unsorted results while its head moves (each move is
+    // reported as a removal and an addition)
+    private final Map<Long, Task> series = new TreeMap<>();
+
+    boolean isEmpty() {
+        return series.isEmpty();
+    }
+
+    // tasks (in date-then-id order) with the occurrences of every series matching filter due in
+    // [from, to] merged in, in the same order. Occurrences are generated as the result is iterated,
+    // so `to` may be null as long as the caller stops early; series rows in tasks are dropped,
+    // since each series contributes its occurrences instead. filter is tested once per series
+    // (see TaskQuery.seriesPredicate()), so every occurrence merged in matches the whole query
+    // and an endless series can never keep a caller looking for its next match.
+    Iterable<Task> merge(Iterable<Task> tasks, LocalDate from, LocalDate to, Predicate<Task> filter) {
+        List<Task> seriesList = matching(filter);
+        return () -> new Iterator<Task>() {
+            private final Iterator<Task> taskIterator = tasks.iterator();
+            private final PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, seriesList.size()),
+                    Comparator.comparing((Cursor c) -> c.current, DATE_ORDER));
+            private Task nextTask;
+
+            {
+                for (Task task : seriesList) {
+                    Cursor cursor = new Cursor(task, from, to);
+                    if (cursor.current != null) {
+                        cursors.add(cursor);
+                    }
+                }
+                advanceTask();
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextTask != null || !cursors.isEmpty();
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Cursor cursor = cursors.peek();
+                if (nextTask != null && (cursor == null || DATE_ORDER.compare(nextTask, cursor.current) <= 0)) {
+                    Task task = nextTask;
+                    advanceTask();
+                    return task;
+                }
+                cursors.poll();
+                Task occurrence = cursor.current;
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+                return occurrence;
+            }
+
+            private void advanceTask() {
+                nextTask = null;
+                while (taskIterator.hasNext()) {
+                    Task task = taskIterator.next();
+                    if (!task.isRecurring()) {
+                        nextTask = task;
+                        return;
+                    }
+                }
+            }
+        };
+    }
+
+    // tasks in their own order, followed by the occurrences of every series matching filter due
+    // in [from, to]; for orders other than by date there is no page to stop at, so an open `to`
+    // yields only each series' next occurrence. Series rows in tasks are dropped, as in merge().
+    Iterable<Task> expand(Iterable<Task> tasks, LocalDate from, LocalDate to, Predicate<Task> filter) {
+        List<Task> occurrences = new ArrayList<>();
+        for (Task task : matching(filter)) {
+            for (Cursor cursor = new Cursor(task, from, to); cursor.current != null; cursor.advance()) {
+                occurrences.add(cursor.current);
+                if (to == null) {
+                    break;
+                }
+            }
+        }
+        return () -> new Iterator<Task>() {
+            private final Iterator<Task> taskIterator = tasks.iterator();
+            private final Iterator<Task> occurrenceIterator = occurrences.iterator();
+            private Task nextTask = advance();
+
+            @Override
+            public boolean hasNext() {
+                return nextTask != null;
+            }
+
+            @Override
+            public Task next() {
+                if (nextTask == null) {
+                    throw new NoSuchElementException();
+                }
+                Task task = nextTask;
+                nextTask = advance();
+                return task;
+            }
+
+            private Task advance() {
+                while (taskIterator.hasNext()) {
+                    Task task = taskIterator.next();
+                    if (!task.isRecurring()) {
+                        return task;
+                    }
+                }
+                return occurrenceIterator.hasNext() ? occurrenceIterator.next() : null;
+            }
+        };
+    }
+
+    private List<Task> matching(Predicate<Task> filter) {
+        List<Task> matches = new ArrayList<>();
+        for (Task task : series.values()) {
+            if (filter.test(task)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    // Position in one series' occurrences; nothing before the series' next occurrence is pending
+    private static class Cursor {
+        private final Task series;
+        private final Iterator<LocalDate> dates;
+        private Task current;
+
+        Cursor(Task series, LocalDate from, LocalDate to) {
+            this.series = series;
+            LocalDate head = series.getCompletionDate();
+            this.dates = series.getRecurrence()
+                    .between(from == null || from.isBefore(head) ? head : from, to)
+                    .iterator();
+            advance();
+        }
+
+        boolean advance() {
+            current = dates.hasNext() ? series.occurrenceOn(dates.next()) : null;
+            return current != null;
+        }
+    }
+
+    // --- TaskStore.Listener ---
+
+    @Override
+    public void taskAdded(Task task) {
+        if (task.isRecurring()) {
+            series.put(task.getId(), task);
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        if (task.isRecurring()) {
+            series.remove(task.getId());
+        }
+    }
+
+    @Override
+    public void taskCompletionChanged(Task task, boolean wasCompleted) {
+        // Series are never completed; their occurrences are, as tasks of their own
+    }
+
+    @Override
+    public void tasksCleared() {
+        series.clear();
+    }
+}
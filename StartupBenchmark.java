@@ -0,0 +1,76 @@
+import java.io.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+// Measures time-to-first-row when opening a large task file: the old single-list
+// format has to be fully deserialized (twice, at startup) before anything shows,
+// the paged format shows the first page as soon as it is read. Also compares
+// compressed and uncompressed snapshot size, write and load time.
+// Usage: java StartupBenchmark [taskCount]
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Task> tasks = generateTasks(count);
+        System.out.printf("Generated %,d tasks%n", count);
+
+        // --- Legacy format: one serialized List<Task> ---
+        File legacyFile = File.createTempFile("tasks_legacy", ".ser");
+        legacyFile.deleteOnExit();
+        try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(legacyFile)))) {
+            oos.writeObject(new ArrayList<>(tasks));
+        }
+        long start = System.nanoTime();
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(legacyFile)))) {
+            ois.readObject();
+        }
+        long legacyMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Legacy single list: first row after %,d ms (one full load; the old startup did two)%n", legacyMs);
+
+        // --- Paged snapshots through the store, uncompressed vs compressed ---
+        measureSnapshot(tasks, false);
+        measureSnapshot(tasks, true);
+    }
+
+    private static void measureSnapshot(List<Task> tasks, boolean compress) throws IOException {
+        File snapshotFile = File.createTempFile(compress ? "tasks_deflate" : "tasks_raw", ".ser");
+        snapshotFile.deleteOnExit();
+        new File(snapshotFile.getPath() + ".prev").deleteOnExit();
+
+        long start = System.nanoTime();
+        new TaskFile(snapshotFile.getPath(), compress).write(tasks);
+        long writeMs = (System.nanoTime() - start) / 1_000_000;
+
+        long[] firstPageNanos = { 0 };
+        TaskStore store = new TaskStore(snapshotFile.getPath(), snapshotFile.getPath() + ".archive");
+        start = System.nanoTime();
+        store.load(page -> {
+            if (firstPageNanos[0] == 0) {
+                firstPageNanos[0] = System.nanoTime();
+            }
+        });
+        long fullMs = (System.nanoTime() - start) / 1_000_000;
+        long firstMs = (firstPageNanos[0] - start) / 1_000_000;
+        System.out.printf("Paged store (%s): %,d KB, write %,d ms, first row after %,d ms, all %,d tasks after %,d ms%n",
+                compress ? "deflate" : "uncompressed", snapshotFile.length() / 1024, writeMs, firstMs, store.size(), fullMs);
+    }
+
+    // Random tasks, already in file order (incomplete by nearest date first) as TaskStore saves them
+    private static List<Task> generateTasks(int count) {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Task task = new Task(i, "Benchmark task #" + i, 1 + random.nextInt(3), today.plusDays(random.nextInt(730) - 365));
+            if (random.nextInt(4) == 0) {
+                task.setCompleted(true);
+            }
+            tasks.add(task);
+        }
+        tasks.sort(Comparator.comparing(Task::isCompleted).thenComparing(Task.getComparatorByDate()));
+        return tasks;
+    }
+}
@@ -0,0 +1,601 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// Headless correctness checks for the store and the components around it. Each
+// check works on its own temporary files; the first failure throws, so the exit
+// status is non-zero.
+// Usage: java StoreChecks
+public class StoreChecks {
+
+    public static void main(String[] args) throws Exception {
+        checkReminderScheduler();
+        checkSnapshotRecovery();
+        checkArchiveRecovery();
+        checkArchiveRestore();
+        checkQueries();
+        checkSeriesQueries();
+        checkSeriesEdits();
+        checkCounters();
+        System.out.println("All checks passed");
+    }
+
+    // =================================================================
+    // REMINDER SCHEDULER (driven through fireDue() under a settable clock)
+    // =================================================================
+
+    private static void checkReminderScheduler() throws IOException {
+        LocalDate today = LocalDate.of(2030, 1, 7);
+        LocalTime reminderTime = LocalTime.of(9, 0);
+        SettableClock clock = new SettableClock(today.atTime(8, 0).atZone(ZoneId.systemDefault()).toInstant());
+
+        TaskStore store = newStore("checks_reminders");
+        store.add("due today", 3, today);
+        Task doneToday = store.add("done today", 3, today);
+        store.setCompleted(doneToday.getId(), true);
+        store.add("due tomorrow", 2, today.plusDays(1));
+        Task beyondHorizon = store.add("beyond the horizon", 1, today.plusDays(ReminderScheduler.HORIZON_DAYS + 3));
+        Task moved = store.add("moved to a later day", 1, today.plusDays(2));
+        Task removed = store.add("removed", 1, today.plusDays(2));
+
+        List<String> fired = Collections.synchronizedList(new ArrayList<>());
+        ReminderScheduler scheduler = new ReminderScheduler(store, clock, reminderTime,
+                dueTasks -> dueTasks.forEach(task -> fired.add(task.getCompletionDate() + " " + task.getValue())));
+        scheduler.start();
+        scheduler.stop(); // The checks call fireDue() themselves
+        check(scheduler.size() == 4, "tasks inside the horizon are slotted: " + scheduler.size());
+
+        clock.set(today.atTime(8, 59));
+        scheduler.fireDue();
+        check(fired.isEmpty(), "nothing fires before the reminder time: " + fired);
+
+        store.update(moved.getId(), moved.getValue(), moved.getPriority(), today.plusDays(4));
+        store.remove(removed.getId());
+
+        List<String> expected = new ArrayList<>();
+        expected.add(today + " due today");
+        expected.add(today.plusDays(1) + " due tomorrow");
+        expected.add(today.plusDays(4) + " moved to a later day");
+        expected.add(beyondHorizon.getCompletionDate() + " beyond the horizon");
+        for (int day = 0; day <= ReminderScheduler.HORIZON_DAYS + 3; day++) {
+            clock.set(today.plusDays(day).atTime(reminderTime));
+            scheduler.fireDue();
+        }
+        check(fired.equals(expected), "reminders fire once, on the due day: " + fired);
+        check(scheduler.size() == 0, "nothing left slotted: " + scheduler.size());
+        System.out.println("ReminderScheduler: ok");
+    }
+
+    // =================================================================
+    // SNAPSHOTS (falling back to the previous one, setting a bad one aside, the old format)
+    // =================================================================
+
+    private static void checkSnapshotRecovery() throws IOException {
+        LocalDate due = LocalDate.of(2030, 1, 7);
+        File file = File.createTempFile("checks_snapshot", ".ser");
+        File previous = new File(file.getPath() + ".prev");
+        File corrupt = new File(file.getPath() + ".corrupt");
+        TaskStore store = newStore(file);
+        store.add("first", 1, due);
+        store.flush();
+        store.add("second", 2, due);
+        store.flush();
+        check(newStore(file).size() == 2 && previous.exists(), "two snapshots written");
+
+        // A damaged live snapshot: the previous one is loaded instead
+        byte[] good = Files.readAllBytes(file.toPath());
+        flipByte(file, file.length() / 2);
+        TaskStore fallback = newStore(file);
+        check(fallback.size() == 1, "a corrupt snapshot falls back to the previous one: " + fallback.size());
+
+        // The unverified live file is set aside on the next write; the previous snapshot is kept
+        byte[] damaged = Files.readAllBytes(file.toPath());
+        byte[] previousBytes = Files.readAllBytes(previous.toPath());
+        fallback.add("third", 3, due);
+        fallback.flush();
+        check(Arrays.equals(Files.readAllBytes(corrupt.toPath()), damaged)
+                && Arrays.equals(Files.readAllBytes(previous.toPath()), previousBytes),
+                "the corrupt snapshot moves to .corrupt without replacing .prev");
+        check(newStore(file).size() == 2, "the new snapshot loads");
+
+        // A crash between the two renames of a write: no live file, only the previous one
+        Files.write(file.toPath(), good);
+        Files.move(file.toPath(), previous.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        TaskStore missing = newStore(file);
+        check(missing.size() == 2, "a missing snapshot falls back to the previous one: " + missing.size());
+
+        // The format before snapshots: one serialized List<Task>
+        previous.delete();
+        ArrayList<Task> legacy = new ArrayList<>(List.of(new Task(1, "legacy one", 1, due), new Task(2, "legacy two", 3, due)));
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file.toPath()))) {
+            out.writeObject(legacy);
+        }
+        TaskStore old = newStore(file);
+        check(old.size() == 2 && "legacy two".equals(old.find(2).getValue()), "a pre-snapshot file loads: " + old.size());
+        old.add("new", 1, due);
+        old.flush();
+        check(newStore(file).size() == 3, "and is rewritten in the snapshot format");
+        System.out.println("TaskFile: ok");
+    }
+
+    // =================================================================
+    // ARCHIVE (reopening after a crash mid-append)
+    // =================================================================
+
+    private static void checkArchiveRecovery() throws IOException {
+        File file = File.createTempFile("checks_archive", ".dat");
+        file.deleteOnExit();
+        new File(file.getPath() + ".corrupt").deleteOnExit();
+        new TaskArchive(file.getPath()).add(List.of(archived(1)));
+        long intact = file.length();
+        new TaskArchive(file.getPath()).add(List.of(archived(2)));
+
+        // A crash part way through the second append
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(intact + (file.length() - intact) / 2);
+        }
+        TaskArchive reopened = new TaskArchive(file.getPath());
+        check(reopened.size() == 1 && reopened.find(2) == null, "a torn frame is ignored: size " + reopened.size());
+
+        // The next append must land where a reader can reach it
+        reopened.add(List.of(archived(3)));
+        reopened = new TaskArchive(file.getPath());
+        check(reopened.size() == 2 && reopened.find(1) != null && reopened.find(3) != null,
+                "an append after a torn frame survives reopening: size " + reopened.size());
+
+        // A damaged payload fails its checksum instead of being decoded
+        flipByte(file, file.length() - 5);
+        reopened = new TaskArchive(file.getPath());
+        check(reopened.getTasks().size() == 1 && reopened.find(3) == null && reopened.size() == 1,
+                "a corrupt frame is rejected: size " + reopened.size());
+
+        // Frames after a damaged one are still read, and appending never cuts them off
+        file.delete();
+        List<Long> frameEnds = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            new TaskArchive(file.getPath()).add(List.of(archived(id)));
+            frameEnds.add(file.length());
+        }
+        flipByte(file, frameEnds.get(1) - 5);
+        reopened = new TaskArchive(file.getPath());
+        reopened.add(List.of(archived(11)));
+        reopened = new TaskArchive(file.getPath());
+        check(reopened.getTasks().size() == 10 && reopened.find(2) == null && reopened.find(10) != null
+                && reopened.find(11) != null, "frames after a damaged one survive an append: " + reopened.getTasks().size());
+
+        // A damaged header ends reading; the unreadable rest is copied aside before the next append
+        long length = file.length();
+        flipByte(file, frameEnds.get(4)); // Magic of frame 6
+        reopened = new TaskArchive(file.getPath());
+        reopened.add(List.of(archived(12)));
+        File corrupt = new File(file.getPath() + ".corrupt");
+        check(corrupt.length() == length && new TaskArchive(file.getPath()).find(12) != null,
+                "the whole damaged archive is kept as .corrupt: " + corrupt.length() + " of " + length + " bytes");
+        System.out.println("TaskArchive: ok");
+    }
+
+    // An edit brings an archived task back; until the hot file has it, the archive must keep it
+    private static void checkArchiveRestore() throws IOException {
+        LocalDate due = LocalDate.of(2030, 1, 7);
+        File file = File.createTempFile("checks_restore", ".ser");
+        TaskStore store = newStore(file);
+        Task reopened = store.add("reopened", 1, due);
+        Task edited = store.add("edited", 1, due);
+        Task deleted = store.add("deleted", 1, due);
+        for (Task task : List.of(reopened, edited, deleted)) {
+            store.setCompleted(task.getId(), true);
+        }
+        store.archiveCompletedBefore(LocalDate.now().plusDays(1));
+        store.flush();
+        check(store.size() == 0 && store.getCounts().archived == 3, "all three are archived");
+
+        store.setCompleted(reopened.getId(), false);
+        store.update(edited.getId(), "edited again", 2, due);
+        store.remove(deleted.getId());
+        // A crash before the snapshot is written: the restored tasks are still in the archive
+        TaskStore crashed = newStore(file);
+        check(crashed.find(reopened.getId(), true) != null && crashed.find(edited.getId(), true) != null,
+                "a restored task survives a crash before the next snapshot");
+
+        store.flush();
+        TaskStore restarted = newStore(file);
+        check(restarted.find(reopened.getId()) != null && !restarted.find(reopened.getId()).isCompleted()
+                && "edited again".equals(restarted.find(edited.getId()).getValue())
+                && restarted.find(deleted.getId(), true) == null && restarted.getCounts().archived == 0,
+                "after the snapshot the archive drops them: " + restarted.getCounts().archived + " archived");
+        System.out.println("TaskStore archive restore: ok");
+    }
+
+    private static void flipByte(File file, long offset) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(offset);
+            int b = raf.read();
+            raf.seek(offset);
+            raf.write(b ^ 0xFF);
+        }
+    }
+
+    // =================================================================
+    // QUERIES (every plan against a brute-force filter and sort)
+    // =================================================================
+
+    private static final String[] FILTERS = {
+        "", "p:high", "p:low..medium", "p:>=2 task", "due:+30", "due:<2030-01-01", "due:2030-03-01..2030-03-31",
+        "status:done", "is:open", "is:open p:high due:>=2030-02-01", "is:done p:medium", "open", "overdue", "#12", "p:high p:low",
+    };
+    private static final String[] SORTS = { "sort:none", "sort:date", "sort:priority", "sort:priority-asc" };
+
+    private static void checkQueries() throws IOException {
+        LocalDate today = LocalDate.of(2030, 1, 7);
+        Random random = new Random(7);
+        TaskStore store = newStore("checks_queries");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Task task = store.add("task #" + i, 1 + random.nextInt(3), today.plusDays(random.nextInt(400) - 200));
+            if (random.nextInt(3) == 0) {
+                store.setCompleted(task.getId(), true);
+            }
+            ids.add(task.getId());
+            if (i == 1000) {
+                store.archiveCompletedBefore(LocalDate.now().plusDays(1)); // Everything completed so far
+            }
+        }
+        List<Task> all = new ArrayList<>();
+        for (long id : ids) {
+            Task task = store.find(id, true);
+            if (task != null && store.find(id) == null) {
+                all.add(task); // Archived ones come first, as the store reads them
+            }
+        }
+        all.addAll(store.getTasks());
+        check(all.size() == 3000 && store.size() < 3000, "some tasks are archived: " + store.size());
+
+        int queries = 0;
+        for (String filter : FILTERS) {
+            for (String sort : SORTS) {
+                for (int limit : new int[] { 1, 25, 5000 }) {
+                    TaskQuery query = TaskQuery.parse(filter + " " + sort, today);
+                    List<String> expected = bruteForce(all, query, limit);
+                    List<String> actual = describe(store.query(query, limit));
+                    check(actual.equals(expected), "query '" + filter + " " + sort + "' limit " + limit
+                            + ": expected " + expected.size() + " rows " + head(expected) + ", got " + actual.size()
+                            + " rows " + head(actual));
+                    queries++;
+                }
+            }
+        }
+        System.out.println("TaskStore.query: ok (" + queries + " queries)");
+    }
+
+    // =================================================================
+    // SERIES QUERIES (occurrences expanded by brute force; a query that never returns fails)
+    // =================================================================
+
+    // Endless series are expanded this far; far enough that no checked page reaches it
+    private static final LocalDate SERIES_HORIZON = LocalDate.of(2100, 1, 1);
+    private static final String[] SERIES_FILTERS = { "standup", "invoice", "p:medium due:>=2030-02-01", "due:+10" };
+
+    private static void checkSeriesQueries() throws Exception {
+        LocalDate today = LocalDate.of(2030, 1, 7);
+        Random random = new Random(11);
+        TaskStore store = newStore("checks_series");
+        for (int i = 0; i < 600; i++) {
+            store.add("task #" + i, 1 + random.nextInt(3), today.plusDays(random.nextInt(120) - 30));
+        }
+        Task daily = store.add("daily standup", 2, today.minusDays(10), Recurrence.parse("daily", today.minusDays(10)));
+        Task weekly = store.add("weekly review", 3, today, Recurrence.parse("weekly", today));
+        store.add("monthly invoice", 1, today, Recurrence.parse("monthly until 2031-06-30", today));
+        store.add("water plants", 1, today.plusDays(5), Recurrence.parse("every 3 days", today.plusDays(5)));
+        store.completeOccurrence(weekly.getId(), today); // Moves the series to its next week
+        store.completeOccurrence(daily.getId(), today.plusDays(3)); // Skipped from now on
+        store.updateOccurrence(daily.getId(), today.plusDays(5), "standup moved", 2, today.plusDays(6));
+
+        // A daemon thread, so a query that never returns fails the check instead of keeping the JVM up
+        ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checks-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int queries = 0;
+        List<String> filters = new ArrayList<>(List.of(FILTERS));
+        filters.addAll(List.of(SERIES_FILTERS));
+        for (String filter : filters) {
+            for (String sort : SORTS) {
+                for (int limit : new int[] { 1, 25, 200 }) {
+                    TaskQuery query = TaskQuery.parse(filter + " " + sort, today);
+                    List<String> expected = bruteForce(store.getTasks(), query, limit);
+                    List<String> actual;
+                    try {
+                        actual = describe(runner.submit(() -> store.query(query, limit))
+                                .get(10, TimeUnit.SECONDS));
+                    } catch (TimeoutException e) {
+                        throw new AssertionError("query '" + filter + " " + sort + "' limit " + limit + " never returns");
+                    } catch (ExecutionException e) {
+                        throw new AssertionError("query '" + filter + " " + sort + "' limit " + limit + " fails", e);
+                    }
+                    check(actual.equals(expected), "query '" + filter + " " + sort + "' limit " + limit
+                            + ": expected " + expected.size() + " rows " + head(expected) + ", got " + actual.size()
+                            + " rows " + head(actual));
+                    queries++;
+                }
+            }
+        }
+        runner.shutdown();
+        System.out.println("TaskStore.query with series: ok (" + queries + " queries)");
+    }
+
+    // =================================================================
+    // SERIES EDITS (materialized occurrences stay skipped; a series never ends up empty)
+    // =================================================================
+
+    private static void checkSeriesEdits() throws IOException {
+        LocalDate start = LocalDate.of(2030, 1, 7);
+        TaskStore store = newStore("checks_edits");
+        TaskQuery january = TaskQuery.parse("due:2030-01-07..2030-01-28 sort:date", start);
+
+        // Renaming keeps the rule; then replacing the rule with an equal one
+        Task weekly = store.add("weekly review", 2, start, Recurrence.parse("weekly", start));
+        store.completeOccurrence(weekly.getId(), start.plusWeeks(1));
+        store.update(weekly.getId(), "weekly team review", 2, start);
+        check(describeRows(store.query(january, 100)).equals(List.of(
+                "2030-01-07 weekly team review", "2030-01-14 weekly review (done)",
+                "2030-01-21 weekly team review", "2030-01-28 weekly team review")),
+                "a rename keeps the completed occurrence skipped: " + describeRows(store.query(january, 100)));
+        store.update(weekly.getId(), "weekly review", 3, start, Recurrence.parse("weekly", start));
+        check(!store.find(weekly.getId()).getRecurrence().occursOn(start.plusWeeks(1)),
+                "a new rule keeps the completed occurrence skipped");
+
+        // Moving a series past its end date, or onto nothing but skipped dates, is refused
+        Task bounded = store.add("bounded", 1, start, Recurrence.parse("weekly until 2030-01-14", start));
+        store.completeOccurrence(bounded.getId(), start.plusWeeks(1));
+        for (LocalDate date : new LocalDate[] { LocalDate.of(2030, 3, 1), start.plusWeeks(1) }) {
+            try {
+                store.update(bounded.getId(), "bounded", 1, date);
+                throw new AssertionError("moving the series to " + date + " leaves no pending occurrence");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+        Task unchanged = store.find(bounded.getId());
+        check(unchanged != null && unchanged.getCompletionDate().equals(start) && store.size() == 4,
+                "a refused edit leaves the series as it was: " + unchanged);
+        System.out.println("Series edits: ok");
+    }
+
+    private static List<String> describeRows(List<Task> tasks) {
+        return tasks.stream()
+                .map(task -> task.getCompletionDate() + " " + task.getValue() + (task.isCompleted() ? " (done)" : ""))
+                .collect(Collectors.toList());
+    }
+
+    // =================================================================
+    // COUNTERS (against a recount of the hot set after every change and day)
+    // =================================================================
+
+    private static void checkCounters() throws IOException {
+        LocalDate start = LocalDate.of(2030, 1, 7);
+        SettableClock clock = new SettableClock(start.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant());
+        TaskStore store = newStore(File.createTempFile("checks_counters", ".ser"), clock);
+        Random random = new Random(5);
+        List<Long> ids = new ArrayList<>();
+        LocalDate today = start;
+        int steps = 3000;
+        for (int step = 0; step < steps; step++) {
+            int op = random.nextInt(100);
+            LocalDate date = today.plusDays(random.nextInt(15) - 7);
+            long id = ids.isEmpty() ? 0 : ids.get(random.nextInt(ids.size()));
+            Task task = store.find(id);
+            String what;
+            if (op < 30 || ids.isEmpty()) {
+                what = "add";
+                Recurrence rule = random.nextInt(8) == 0 ? Recurrence.parse("every 2 days", date) : null;
+                ids.add(store.add("task " + step, 1 + random.nextInt(3), date, rule).getId());
+            } else if (op < 45) {
+                what = "update " + id;
+                try {
+                    store.update(id, "edited " + step, 1 + random.nextInt(3), date);
+                } catch (IllegalArgumentException e) {
+                    // A series with nothing left from date on; counted as unchanged
+                }
+            } else if (op < 70) {
+                what = "toggle " + id; // Completes the next occurrence of a series; may restore an archived task
+                store.setCompleted(id, task == null || !task.isCompleted());
+            } else if (op < 78 && task != null && task.isRecurring()) {
+                what = "complete a later occurrence of " + id;
+                store.completeOccurrence(id, task.getRecurrence().nextOnOrAfter(task.getCompletionDate().plusDays(1)));
+            } else if (op < 88) {
+                what = "remove " + id;
+                store.remove(id);
+            } else if (op < 93) {
+                what = "archive";
+                store.archiveCompletedBefore(LocalDate.now().plusDays(1));
+            } else if (op < 99) {
+                today = today.plusDays(1 + random.nextInt(2));
+                what = "day rolls over to " + today;
+                clock.set(today.atTime(0, 1));
+            } else {
+                what = "clear";
+                store.clear();
+                ids.clear();
+            }
+            for (Task added : store.getTasks()) {
+                if (!ids.contains(added.getId())) {
+                    ids.add(added.getId()); // Materialized occurrences
+                }
+            }
+            checkCounts(store, ids, today, "after step " + step + " (" + what + ")");
+        }
+        System.out.println("TaskCounters: ok (" + steps + " steps)");
+    }
+
+    private static void checkCounts(TaskStore store, List<Long> ids, LocalDate today, String when) {
+        int incomplete = 0;
+        int completed = 0;
+        int[] byPriority = new int[4];
+        int overdue = 0;
+        int dueToday = 0;
+        int dueSoon = 0;
+        for (Task task : store.getTasks()) {
+            if (task.isCompleted()) {
+                completed++;
+                continue;
+            }
+            incomplete++;
+            byPriority[task.getPriority()]++;
+            LocalDate due = task.getCompletionDate();
+            if (due.isBefore(today)) {
+                overdue++;
+            } else if (due.equals(today)) {
+                dueToday++;
+            } else if (!due.isAfter(today.plusDays(TaskCounters.DUE_SOON_DAYS))) {
+                dueSoon++;
+            }
+        }
+        int archived = 0;
+        for (long id : ids) {
+            if (store.find(id) == null && store.find(id, true) != null) {
+                archived++;
+            }
+        }
+        TaskCounters.Counts counts = store.getCounts();
+        String expected = incomplete + "/" + completed + "/" + archived + " " + Arrays.toString(byPriority) + " "
+                + overdue + "/" + dueToday + "/" + dueSoon;
+        String actual = counts.incomplete + "/" + counts.completed + "/" + counts.archived + " "
+                + Arrays.toString(counts.incompleteByPriority) + " " + counts.overdue + "/" + counts.dueToday + "/"
+                + counts.dueSoon;
+        check(actual.equals(expected), "counts " + when + ": expected " + expected + ", got " + actual);
+    }
+
+    // tasks filtered and sorted the way TaskStore.query() documents it, series expanded into
+    // their occurrences: every one in the due range, except that with an open end and an order
+    // other than by date each series shows once. Unsorted, occurrences follow the other tasks,
+    // series by series in id order.
+    private static List<String> bruteForce(List<Task> tasks, TaskQuery query, int limit) {
+        if (query.matchesNothing()) {
+            return new ArrayList<>();
+        }
+        Predicate<Task> predicate = query.predicate();
+        Comparator<Task> comparator = query.comparator();
+        List<Task> rows = new ArrayList<>();
+        List<Task> occurrences = new ArrayList<>();
+        for (Task task : tasks) {
+            if (!task.isRecurring()) {
+                rows.add(task);
+                continue;
+            }
+            LocalDate head = task.getCompletionDate();
+            LocalDate from = query.getDueFrom() == null || query.getDueFrom().isBefore(head) ? head : query.getDueFrom();
+            boolean every = query.getSort() == TaskQuery.Sort.DATE || query.getDueTo() != null;
+            for (LocalDate date : task.getRecurrence().between(from, every ? query.getDueTo() : null)) {
+                if (date.isAfter(SERIES_HORIZON)) {
+                    break;
+                }
+                occurrences.add(task.occurrenceOn(date));
+                if (!every) {
+                    break;
+                }
+            }
+        }
+        occurrences.sort(Comparator.comparing(Task::getId)); // Series in id order, each in date order (stable)
+        rows.addAll(occurrences);
+        List<Task> matches = rows.stream().filter(predicate).collect(Collectors.toList());
+        if (comparator != null) {
+            matches.sort(comparator);
+        }
+        return describe(matches.subList(0, Math.min(limit, matches.size())));
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream().map(task -> task.getId() + "@" + task.getCompletionDate()).collect(Collectors.toList());
+    }
+
+    private static List<String> head(List<String> rows) {
+        return rows.subList(0, Math.min(5, rows.size()));
+    }
+
+    private static Task archived(long id) {
+        Task task = new Task(id, "archived #" + id, 1, LocalDate.of(2029, 12, 1));
+        task.setCompleted(true);
+        return task;
+    }
+
+    // =================================================================
+    // UTILITIES
+    // =================================================================
+
+    private static TaskStore newStore(String prefix) throws IOException {
+        return newStore(File.createTempFile(prefix, ".ser"));
+    }
+
+    private static TaskStore newStore(File file) throws IOException {
+        return newStore(file, Clock.systemDefaultZone());
+    }
+
+    // A store over file's snapshot and archive; an empty file counts as no snapshot yet
+    private static TaskStore newStore(File file, Clock clock) throws IOException {
+        if (file.length() == 0) {
+            file.delete();
+        }
+        for (String suffix : new String[] { "", ".prev", ".tmp", ".corrupt", ".archive", ".archive.corrupt" }) {
+            new File(file.getPath() + suffix).deleteOnExit();
+        }
+        TaskStore store = new TaskStore(file.getPath(), file.getPath() + ".archive", clock);
+        store.load(page -> { });
+        return store;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static class SettableClock extends Clock {
+        private volatile Instant now;
+
+        SettableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(LocalDateTime time) {
+            now = time.atZone(getZone()).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
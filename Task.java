@@ -9,13 +9,20 @@ class Task implements Serializable {
     private LocalDate completionDate;
     private int priority; // 1=Low, 2=Medium, 3=High
     private LocalDate completedAt;
+    // Set on a recurring series, whose completionDate is its next pending occurrence
+    private Recurrence recurrence;
 
     public Task(long id, String value, int priority, LocalDate completionDate) {
+        this(id, value, priority, completionDate, null);
+    }
+
+    public Task(long id, String value, int priority, LocalDate completionDate, Recurrence recurrence) {
         this.id = id;
         this.value = value;
         this.priority = priority;
         this.completionDate = completionDate;
         this.completedAt = null;
+        this.recurrence = recurrence;
     }
 
     // --- Getters and Setters ---
@@ -24,6 +31,16 @@ class Task implements Serializable {
     public int getPriority() { return priority; }
     public LocalDate getCompletionDate() { return completionDate; }
     public LocalDate getCompletedAt() { return completedAt; }
+    public Recurrence getRecurrence() { return recurrence; }
+
+    public boolean isRecurring() {
+        return recurrence != null;
+    }
+
+    // A row for one occurrence of this series, sharing its id; the store identifies it by (id, date)
+    public Task occurrenceOn(LocalDate date) {
+        return date.equals(completionDate) ? this : new Task(id, value, priority, date, recurrence);
+    }
     
     public boolean isCompleted() {
         return completedAt != null;
@@ -53,7 +70,8 @@ class Task implements Serializable {
     @Override
     public String toString() {
         String status = isCompleted() ? " [DONE]" : "";
-        return String.format("[%s] %s (Due: %s)%s", 
-            getPriorityString(), value, completionDate, status);
+        String repeat = isRecurring() ? " (Repeats " + recurrence + ")" : "";
+        return String.format("[%s] %s (Due: %s)%s%s", 
+            getPriorityString(), value, completionDate, repeat, status);
     }
 }
\ No newline at end of file
@@ -0,0 +1,414 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Local HTTP/JSON API over a TaskStore, bound to the loopback interface only.
+//
+//   GET    /tasks?status=all|completed|incomplete&q=text&sort=none|date|priority-desc|priority-asc
+//                &query=<TaskQuery syntax, e.g. p:high due:week invoice>&offset=0..100000&limit=0..10000
+//   GET    /tasks/{id}
+//   POST   /tasks                  {"value": "...", "priority": 1-3, "completionDate": "YYYY-MM-DD",
+//                                   "recurrence": "weekly" | "every 3 days until YYYY-MM-DD" | null}
+//   PUT    /tasks/{id}             same fields, each optional. For a series this edits the whole
+//                                   series; moving it to a date other than its next occurrence
+//                                   needs "recurrence" too (it restarts the rule there), and 400
+//                                   if no occurrence would be left (e.g. past its end date).
+//                                   ?date=YYYY-MM-DD edits that one occurrence instead: it becomes
+//                                   a task of its own (no "recurrence" then)
+//   POST   /tasks/{id}/complete    for a series: ?date=YYYY-MM-DD (default: its next occurrence)
+//   POST   /tasks/{id}/incomplete
+//   DELETE /tasks/{id}
+//   GET    /stats                  counts by status and priority, overdue and due-soon buckets
+//
+// A recurring series is one task due on its next occurrence; lists expand it into
+// occurrences (sharing its id) within the requested due range. Completing one
+// returns the task it became.
+//
+// There is no authentication: every local process, of any OS user, can read and
+// edit the tasks, so the Swing app only starts the API when asked to
+// (-Dtodo.api.port=N, e.g. 8765).
+//
+// Only local, non-browser clients are served. Any web page can send a simple
+// cross-origin POST to a loopback port, and DNS rebinding can point a page's own
+// host name at it, so requests carrying an Origin header (browsers send one on
+// those) or a Host other than a loopback name get 403, and request bodies must be
+// application/json (415 otherwise).
+//
+// Handlers run on virtual threads when the runtime has them (JDK 21+; the app's
+// classes are built for 23), otherwise on a fixed pool of platform threads. Every
+// handler enters the TaskStore monitor, and before JDK 24 a virtual thread blocked
+// on a monitor pins its carrier. Thousands of requests in flight stay cheap while
+// they read and write the network, but those waiting on the store hold a carrier
+// each and the rest queue for one. Store work is serialized either way, so this
+// bounds latency under load rather than throughput.
+//
+// Run standalone (java TaskApiServer [port]) only while the Swing app is closed:
+// both would own the same task file.
+class TaskApiServer {
+    static final int DEFAULT_PORT = 8765;
+    private static final int BACKLOG = 4096; // Pending connections, for bursts of concurrent clients
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10_000;
+    // Paging deeper than this would make every request hold offset + limit rows
+    private static final int MAX_OFFSET = 100_000;
+    private static final Set<String> LOOPBACK_HOSTS = Set.of("127.0.0.1", "localhost", "[::1]");
+
+    private final TaskStore store;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    TaskApiServer(TaskStore store, int port) throws IOException {
+        this.store = store;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.executor = newHandlerExecutor();
+        server.setExecutor(executor);
+        server.createContext("/tasks", this::handle);
+        server.createContext("/stats", this::handleStats);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Looked up reflectively so the sources still compile on JDK 17
+    static ExecutorService newHandlerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Pre-21 runtime. Handlers are short and mostly wait on the store lock, so a modest pool suffices
+            return Executors.newFixedThreadPool(Math.max(16, Runtime.getRuntime().availableProcessors() * 4));
+        }
+    }
+
+    // =================================================================
+    // ROUTING
+    // =================================================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!admit(exchange)) {
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().replaceAll("^/tasks/?|/$", "").split("/");
+            if (path.length == 1 && path[0].isEmpty()) {
+                path = new String[0];
+            }
+
+            if (path.length == 0 && method.equals("GET")) {
+                handleList(exchange);
+            } else if (path.length == 0 && method.equals("POST")) {
+                handleCreate(exchange);
+            } else if (path.length == 1 && method.equals("GET")) {
+                handleGet(exchange, parseId(path[0]));
+            } else if (path.length == 1 && method.equals("PUT")) {
+                handleUpdate(exchange, parseId(path[0]));
+            } else if (path.length == 1 && method.equals("DELETE")) {
+                handleDelete(exchange, parseId(path[0]));
+            } else if (path.length == 2 && method.equals("POST") && path[1].equals("complete")) {
+                handleComplete(exchange, parseId(path[0]));
+            } else if (path.length == 2 && method.equals("POST") && path[1].equals("incomplete")) {
+                handleSetCompleted(exchange, parseId(path[0]), false);
+            } else {
+                send(exchange, 404, Json.error("No route for " + method + " " + exchange.getRequestURI().getPath()));
+            }
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, Json.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            send(exchange, 500, Json.error(String.valueOf(e)));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Answers requests that may come from a browser with 403, and bodies that are not JSON
+    // with 415; returns whether the request may proceed
+    private static boolean admit(HttpExchange exchange) throws IOException {
+        Headers headers = exchange.getRequestHeaders();
+        if (headers.containsKey("Origin")) {
+            send(exchange, 403, Json.error("Cross-origin requests are not accepted"));
+            return false;
+        }
+        String host = headers.getFirst("Host");
+        if (host != null && !LOOPBACK_HOSTS.contains(host.replaceFirst(":\\d+$", "").toLowerCase())) {
+            send(exchange, 403, Json.error("Host " + host + " is not a loopback address"));
+            return false;
+        }
+        String contentLength = headers.getFirst("Content-Length");
+        boolean hasBody = headers.containsKey("Transfer-Encoding")
+                || (contentLength != null && !contentLength.trim().equals("0"));
+        String contentType = headers.getFirst("Content-Type");
+        if (hasBody && (contentType == null || !contentType.toLowerCase().startsWith("application/json"))) {
+            send(exchange, 415, Json.error("Request bodies must be application/json"));
+            return false;
+        }
+        return true;
+    }
+
+    // =================================================================
+    // HANDLERS
+    // =================================================================
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            if (!admit(exchange)) {
+                return;
+            }
+            if (exchange.getRequestMethod().equals("GET") && exchange.getRequestURI().getPath().matches("/stats/?")) {
+                send(exchange, 200, Json.counts(store.getCounts()));
+            } else {
+                send(exchange, 404, Json.error("No route for " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI().getPath()));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleList(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        int offset = parseInt(params.get("offset"), 0, "offset");
+        int limit = Math.min(parseInt(params.get("limit"), DEFAULT_LIMIT, "limit"), MAX_LIMIT);
+        if (offset > MAX_OFFSET) {
+            throw new IllegalArgumentException("offset must be at most " + MAX_OFFSET + "; narrow the query instead");
+        }
+
+        TaskQuery query = new TaskQuery()
+                .status(TaskQuery.parseStatus(params.getOrDefault("status", "all")))
+                .sort(TaskQuery.parseSort(params.getOrDefault("sort", "none")))
+                .text(params.getOrDefault("q", ""))
+                .apply(params.getOrDefault("query", ""), LocalDate.now());
+
+        List<Task> tasks = store.query(query, Math.addExact(offset, limit));
+        send(exchange, 200, Json.tasks(tasks.subList(Math.min(offset, tasks.size()), tasks.size())));
+    }
+
+    private void handleGet(HttpExchange exchange, long id) throws IOException {
+        Task task = store.find(id, true);
+        if (task == null) {
+            sendNotFound(exchange, id);
+        } else {
+            send(exchange, 200, Json.task(task));
+        }
+    }
+
+    private void handleCreate(HttpExchange exchange) throws IOException {
+        Map<String, String> body = readBody(exchange);
+        String value = parseValue(body.get("value"));
+        int priority = parsePriority(body.getOrDefault("priority", "3"));
+        LocalDate dueDate = parseDate(body.getOrDefault("completionDate", LocalDate.now().plusDays(1).toString()));
+        Recurrence recurrence = Recurrence.parse(body.get("recurrence"), dueDate);
+        send(exchange, 201, Json.task(store.add(value, priority, dueDate, recurrence)));
+    }
+
+    private void handleUpdate(HttpExchange exchange, long id) throws IOException {
+        Map<String, String> body = readBody(exchange);
+        Task existing = store.find(id, true);
+        if (existing == null) {
+            sendNotFound(exchange, id);
+            return;
+        }
+        String value = body.containsKey("value") ? parseValue(body.get("value")) : existing.getValue();
+        int priority = body.containsKey("priority") ? parsePriority(body.get("priority")) : existing.getPriority();
+        String date = parseQuery(exchange.getRequestURI().getRawQuery()).get("date");
+        if (date != null) {
+            handleUpdateOccurrence(exchange, existing, parseDate(date), value, priority, body);
+            return;
+        }
+        LocalDate dueDate = body.containsKey("completionDate")
+                ? parseDate(body.get("completionDate"))
+                : existing.getCompletionDate();
+        // Occurrence rows share the series id: a row's date sent back must not silently restart the series
+        if (existing.isRecurring() && !dueDate.equals(existing.getCompletionDate()) && !body.containsKey("recurrence")) {
+            throw new IllegalArgumentException("Task " + id + " is a series with its next occurrence on "
+                    + existing.getCompletionDate() + "; use ?date=" + dueDate + " to edit one occurrence, or send"
+                    + " \"recurrence\" to restart the series on " + dueDate);
+        }
+
+        Task updated = body.containsKey("recurrence")
+                ? store.update(id, value, priority, dueDate, Recurrence.parse(body.get("recurrence"), dueDate))
+                : store.update(id, value, priority, dueDate);
+        if (updated == null) {
+            sendNotFound(exchange, id); // Deleted concurrently
+        } else {
+            send(exchange, 200, Json.task(updated));
+        }
+    }
+
+    private void handleUpdateOccurrence(HttpExchange exchange, Task series, LocalDate day, String value, int priority,
+            Map<String, String> body) throws IOException {
+        if (!series.isRecurring()) {
+            throw new IllegalArgumentException("Task " + series.getId() + " is not a series; omit ?date=");
+        }
+        if (body.containsKey("recurrence")) {
+            throw new IllegalArgumentException("An occurrence has no repeat rule of its own; omit \"recurrence\"");
+        }
+        LocalDate dueDate = body.containsKey("completionDate") ? parseDate(body.get("completionDate")) : day;
+        Task updated = store.updateOccurrence(series.getId(), day, value, priority, dueDate);
+        if (updated == null) {
+            send(exchange, 404, Json.error("Task " + series.getId() + " has no pending occurrence on " + day));
+        } else {
+            send(exchange, 200, Json.task(updated));
+        }
+    }
+
+    private void handleComplete(HttpExchange exchange, long id) throws IOException {
+        Task task = store.find(id);
+        if (task == null || !task.isRecurring()) {
+            handleSetCompleted(exchange, id, true);
+            return;
+        }
+        String date = parseQuery(exchange.getRequestURI().getRawQuery()).get("date");
+        LocalDate day = date == null ? task.getCompletionDate() : parseDate(date);
+        Task completed = store.completeOccurrence(id, day);
+        if (completed == null) {
+            send(exchange, 404, Json.error("Task " + id + " has no pending occurrence on " + day));
+        } else {
+            send(exchange, 200, Json.task(completed));
+        }
+    }
+
+    private void handleSetCompleted(HttpExchange exchange, long id, boolean completed) throws IOException {
+        if (!store.setCompleted(id, completed)) {
+            sendNotFound(exchange, id);
+            return;
+        }
+        handleGet(exchange, id);
+    }
+
+    private void handleDelete(HttpExchange exchange, long id) throws IOException {
+        if (store.remove(id)) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            sendNotFound(exchange, id);
+        }
+    }
+
+    // =================================================================
+    // UTILITIES
+    // =================================================================
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        String text = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        return text.isBlank() ? new HashMap<>() : Json.parseObject(text);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static long parseId(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid task id: " + text);
+        }
+    }
+
+    private static int parseInt(String text, int defaultValue, String name) {
+        if (text == null) {
+            return defaultValue;
+        }
+        try {
+            int value = Integer.parseInt(text);
+            if (value < 0) {
+                throw new IllegalArgumentException(name + " must not be negative");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + text);
+        }
+    }
+
+    private static String parseValue(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Task description is required.");
+        }
+        return text.trim();
+    }
+
+    private static int parsePriority(String text) {
+        int priority = parseInt(text, 3, "priority");
+        if (priority < 1 || priority > 3) {
+            throw new IllegalArgumentException("priority must be 1 (Low), 2 (Medium) or 3 (High)");
+        }
+        return priority;
+    }
+
+    private static LocalDate parseDate(String text) {
+        try {
+            return LocalDate.parse(String.valueOf(text).trim(), DateTimeFormatter.ISO_LOCAL_DATE);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid Date Format. Use YYYY-MM-DD.");
+        }
+    }
+
+    private static void sendNotFound(HttpExchange exchange, long id) throws IOException {
+        send(exchange, 404, Json.error("Task " + id + " not found"));
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // =================================================================
+    // MAIN (headless)
+    // =================================================================
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        TaskStore store = new TaskStore(ComplexToDoListApp.FILE_NAME, ComplexToDoListApp.ARCHIVE_FILE_NAME);
+        store.load(page -> { });
+        Runtime.getRuntime().addShutdownHook(new Thread(store::flush));
+
+        TaskApiServer server = new TaskApiServer(store, port);
+        server.start();
+        System.out.println("Task API listening on http://127.0.0.1:" + server.getPort() + "/tasks");
+    }
+}
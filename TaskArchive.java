@@ -0,0 +1,230 @@
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Append-only archive of old completed tasks. Each append writes one frame:
+// [int FRAME_MAGIC][int length][int addedCount][int removedCount][int crc32][deflated serialized Segment]
+// A segment adds tasks and/or drops previously archived ids (tombstones), so
+// nothing already written is rewritten. The counts let size() be answered from
+// the headers alone, without reading any segment. A frame that fails its checksum
+// is skipped; reading stops at a header that is not a frame or a frame that runs
+// past the end of the file. Before the first append the file is copied aside to
+// .corrupt and that tail cut off, so new frames never land where reading stops.
+// The file is only read when a query needs it, and the decoded tasks are held
+// through a SoftReference so the JVM can reclaim them under memory pressure.
+class TaskArchive {
+
+    private static class Segment implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final ArrayList<Task> tasks;
+        private final long[] removedIds;
+
+        Segment(List<Task> tasks, long[] removedIds) {
+            this.tasks = new ArrayList<>(tasks);
+            this.removedIds = removedIds;
+        }
+    }
+
+    private interface FrameVisitor {
+        void visit(int added, int removed, Segment segment); // segment is null when not decoded
+    }
+
+    private static final int MAX_SEGMENT_BYTES = 64 * 1024 * 1024; // Anything larger is a torn header
+    private static final int FRAME_MAGIC = 0xA5C30001;
+    private static final int HEADER_BYTES = 20;
+
+    private final File file;
+    private final File corruptFile;
+    private SoftReference<Map<Long, Task>> cache = new SoftReference<>(null);
+    private int count = -1; // Archived tasks, -1 until the headers have been read
+    private boolean tailChecked = false; // Whether an incomplete last frame has been cut off
+
+    TaskArchive(String fileName) {
+        this.file = new File(fileName);
+        this.corruptFile = new File(fileName + ".corrupt");
+    }
+
+    synchronized boolean isEmpty() {
+        return file.length() == 0;
+    }
+
+    // Archived tasks in archiving order, read from disk on first use
+    synchronized Collection<Task> getTasks() {
+        return load().values();
+    }
+
+    // Number of archived tasks; the first call reads only the frame headers, so a frame that
+    // fails its checksum is counted until the archive is next read in full
+    synchronized int size() {
+        Map<Long, Task> tasks = cache.get();
+        if (tasks != null) {
+            return tasks.size();
+        }
+        if (count < 0) {
+            countFrames();
+        }
+        return count;
+    }
+
+    synchronized Task find(long id) {
+        return isEmpty() ? null : load().get(id);
+    }
+
+    synchronized void add(List<Task> tasks) throws IOException {
+        append(new Segment(tasks, new long[0]));
+    }
+
+    synchronized void remove(Collection<Long> ids) throws IOException {
+        append(new Segment(new ArrayList<>(), ids.stream().mapToLong(Long::longValue).toArray()));
+    }
+
+    synchronized void clear() {
+        if (file.exists() && !file.delete()) {
+            System.err.println("Error deleting archive: " + file);
+        }
+        cache = new SoftReference<>(null);
+        count = 0;
+        tailChecked = true;
+    }
+
+    private void append(Segment segment) throws IOException {
+        if (!tailChecked) {
+            truncateTail();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(new DeflaterOutputStream(bytes))) {
+            oos.writeObject(segment);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        try (FileOutputStream fos = new FileOutputStream(file, true);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(FRAME_MAGIC);
+            out.writeInt(bytes.size());
+            out.writeInt(segment.tasks.size());
+            out.writeInt(segment.removedIds.length);
+            out.writeInt((int) crc.getValue());
+            bytes.writeTo(out);
+            out.flush();
+            fos.getFD().sync(); // The hot file drops these tasks right after, so they must be on disk
+        }
+        Map<Long, Task> tasks = cache.get();
+        if (tasks != null) {
+            apply(tasks, segment);
+        }
+        if (count >= 0) {
+            // Tombstones are only written for archived ids, so this stays exact
+            count += segment.tasks.size() - segment.removedIds.length;
+        }
+    }
+
+    // A crash mid-append leaves a partial frame at the end of the file. Frames appended after
+    // it would never be read, so cut the file back to the last readable frame first. Damage
+    // other than a torn append can end reading early too, so the bytes go to .corrupt first.
+    private void truncateTail() throws IOException {
+        long end = countFrames();
+        if (end < file.length()) {
+            System.err.println("Archive: cutting off " + (file.length() - end) + " unreadable bytes, whole file kept as "
+                    + corruptFile);
+            Files.copy(file.toPath(), corruptFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+        tailChecked = true;
+    }
+
+    // Sets count from the frame headers; returns the end of the last readable frame
+    private long countFrames() {
+        int[] total = { 0 };
+        long end = readFrames(false, (added, removed, segment) -> total[0] += added - removed);
+        count = total[0];
+        return end;
+    }
+
+    private Map<Long, Task> load() {
+        Map<Long, Task> tasks = cache.get();
+        if (tasks != null) {
+            return tasks;
+        }
+        Map<Long, Task> loaded = new LinkedHashMap<>();
+        readFrames(true, (added, removed, segment) -> apply(loaded, segment));
+        cache = new SoftReference<>(loaded);
+        count = loaded.size();
+        return loaded;
+    }
+
+    // Visits every readable frame in order and returns the offset just past the last one. A frame
+    // whose checksum or segment is bad is skipped: its length is intact, since the next header
+    // must still be where it says. Reading ends at a header that is not a frame or a frame cut
+    // short by a crash mid-append. Segments are only read when decode is set.
+    private long readFrames(boolean decode, FrameVisitor visitor) {
+        if (!file.exists()) {
+            return 0;
+        }
+        long fileLength = file.length();
+        long end = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (end + HEADER_BYTES <= fileLength) {
+                int magic = in.readInt();
+                int length = in.readInt();
+                int added = in.readInt();
+                int removed = in.readInt();
+                int checksum = in.readInt();
+                // Skipping can run past the end of the file, so check the frame is all there
+                // before trusting its counts
+                if (magic != FRAME_MAGIC || length < 0 || length > MAX_SEGMENT_BYTES || added < 0 || removed < 0
+                        || end + HEADER_BYTES + length > fileLength) {
+                    break; // Garbage, or a frame cut short by a crash mid-append
+                }
+                end += HEADER_BYTES + length;
+                if (!decode) {
+                    in.skipNBytes(length);
+                    visitor.visit(added, removed, null);
+                    continue;
+                }
+                byte[] data = new byte[length];
+                in.readFully(data);
+                crc.reset();
+                crc.update(data);
+                if ((int) crc.getValue() != checksum) {
+                    System.err.println("Archive: skipping a frame that fails its checksum at offset "
+                            + (end - HEADER_BYTES - length));
+                    continue;
+                }
+                try (ObjectInputStream ois = new ObjectInputStream(
+                        new InflaterInputStream(new ByteArrayInputStream(data)))) {
+                    visitor.visit(added, removed, (Segment) ois.readObject());
+                } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                    System.err.println("Archive: skipping an unreadable frame: " + e);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading archive: " + e.getMessage());
+        }
+        return end;
+    }
+
+    private static void apply(Map<Long, Task> tasks, Segment segment) {
+        for (long id : segment.removedIds) {
+            tasks.remove(id);
+        }
+        for (Task task : segment.tasks) {
+            tasks.remove(task.getId()); // Re-archived tasks move to the end
+            tasks.put(task.getId(), task);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Dashboard counts over the store's hot set, kept up to date as a store listener,
+// so reading them never walks the tasks. Every event moves a task between buckets
+// in O(1). The date buckets are relative to today: on the first read after
+// midnight they are recounted from the due-date index, one step per day.
+// A recurring series counts once, as its next occurrence.
+class TaskCounters implements TaskStore.Listener {
+    static final int DUE_SOON_DAYS = 3; // Same window as the list's "due soon" color
+
+    // Snapshot of the counters at one store version
+    static final class Counts {
+        final int incomplete;
+        final int completed;
+        final int archived;
+        final int[] incompleteByPriority; // Indexed by priority, 1 (Low) to 3 (High)
+        final int overdue; // Incomplete, due before today
+        final int dueToday;
+        final int dueSoon; // Incomplete, due in the DUE_SOON_DAYS days after today
+
+        private Counts(TaskCounters counters, int archived) {
+            this.incomplete = counters.incomplete;
+            this.completed = counters.completed;
+            this.archived = archived;
+            this.incompleteByPriority = counters.incompleteByPriority.clone();
+            this.overdue = counters.overdue;
+            this.dueToday = counters.dueToday;
+            this.dueSoon = counters.dueSoon;
+        }
+
+        int incompleteWithPriority(int priority) {
+            return priority >= 1 && priority <= 3 ? incompleteByPriority[priority] : 0;
+        }
+    }
+
+    private final TaskIndex index;
+    private final Clock clock;
+    private LocalDate today;
+    private int incomplete = 0;
+    private int completed = 0;
+    private final int[] incompleteByPriority = new int[4];
+    private int overdue = 0;
+    private int dueToday = 0;
+    private int dueSoon = 0;
+
+    TaskCounters(TaskIndex index, Clock clock) {
+        this.index = index;
+        this.clock = clock;
+        this.today = LocalDate.now(clock);
+    }
+
+    // Caller holds the store lock
+    Counts snapshot(int archived) {
+        LocalDate now = LocalDate.now(clock);
+        if (!now.equals(today)) {
+            rollOver(now);
+        }
+        return new Counts(this, archived);
+    }
+
+    // The day changed: recount the date buckets (the index is current, the listener runs after it)
+    private void rollOver(LocalDate now) {
+        today = now;
+        overdue = index.count(false, null, now.minusDays(1));
+        dueToday = index.count(false, now, now);
+        dueSoon = index.count(false, now.plusDays(1), now.plusDays(DUE_SOON_DAYS));
+    }
+
+    // --- TaskStore.Listener ---
+
+    @Override
+    public void taskAdded(Task task) {
+        count(task, task.isCompleted(), 1);
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        count(task, task.isCompleted(), -1);
+    }
+
+    @Override
+    public void taskCompletionChanged(Task task, boolean wasCompleted) {
+        count(task, wasCompleted, -1);
+        count(task, task.isCompleted(), 1);
+    }
+
+    @Override
+    public void tasksCleared() {
+        incomplete = 0;
+        completed = 0;
+        Arrays.fill(incompleteByPriority, 0);
+        overdue = 0;
+        dueToday = 0;
+        dueSoon = 0;
+    }
+
+    private void count(Task task, boolean isCompleted, int delta) {
+        if (isCompleted) {
+            completed += delta;
+            return;
+        }
+        incomplete += delta;
+        if (task.getPriority() >= 1 && task.getPriority() <= 3) {
+            incompleteByPriority[task.getPriority()] += delta;
+        }
+        // Against a stale day these may drift, but the next read recounts them
+        LocalDate dueDate = task.getCompletionDate();
+        if (dueDate.isBefore(today)) {
+            overdue += delta;
+        } else if (dueDate.equals(today)) {
+            dueToday += delta;
+        } else if (!dueDate.isAfter(today.plusDays(DUE_SOON_DAYS))) {
+            dueSoon += delta;
+        }
+    }
+}
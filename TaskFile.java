@@ -0,0 +1,232 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Task snapshot file, stored as a sequence of pages so the UI can show the first
+// rows before the whole file has been read.
+//
+// Layout: MAGIC, then one block per page of PAGE_SIZE tasks:
+//   [int rawLength][int storedLength][int crc32 of stored bytes][stored bytes]
+// where the stored bytes are the deflated serialized ArrayList<Task> (or the raw
+// bytes when deflating does not help), then a trailer [int -1][int blockCount].
+//
+// Snapshots are written to a temp file, fsynced and renamed over the live file;
+// the snapshot being replaced is kept as the previous one. A snapshot that fails
+// its checksums (or is missing) is replaced by the previous one on load. Files
+// written before this format (one serialized List<Task>) are still read.
+class TaskFile {
+    static final int PAGE_SIZE = 500;
+    private static final int MAGIC = 0x54445331; // "TDS1"
+    private static final int MAX_BLOCK_BYTES = 64 * 1024 * 1024; // Anything larger is a corrupt header
+
+    private final File file;
+    private final File previousFile;
+    private final File tempFile;
+    private final File corruptFile;
+    private final boolean compress;
+    private boolean fileIsGood = false; // Live file verified, so it may become the previous snapshot
+
+    TaskFile(String fileName) {
+        this(fileName, true);
+    }
+
+    TaskFile(String fileName, boolean compress) {
+        this.file = new File(fileName);
+        this.previousFile = new File(fileName + ".prev");
+        this.tempFile = new File(fileName + ".tmp");
+        this.corruptFile = new File(fileName + ".corrupt");
+        this.compress = compress;
+    }
+
+    // Reads the live snapshot, falling back to the previous one if it is missing or corrupt.
+    // discardPages is called before the fallback so pages already handed out can be dropped.
+    synchronized void readPages(Consumer<List<Task>> pageConsumer, Runnable discardPages)
+            throws IOException, ClassNotFoundException {
+        if (file.exists()) {
+            try {
+                read(file, pageConsumer);
+                fileIsGood = true;
+                return;
+            } catch (IOException | ClassNotFoundException e) {
+                if (!previousFile.exists()) {
+                    throw e;
+                }
+                System.err.println("Error loading tasks: " + e.getMessage() + ", using previous snapshot");
+                discardPages.run();
+            }
+        }
+        if (previousFile.exists()) {
+            read(previousFile, pageConsumer);
+        }
+    }
+
+    synchronized void write(List<Task> tasks) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIC);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            CRC32 crc = new CRC32();
+            int blocks = 0;
+            try {
+                for (int from = 0; from < tasks.size(); from += PAGE_SIZE) {
+                    int to = Math.min(from + PAGE_SIZE, tasks.size());
+                    byte[] raw = serialize(new ArrayList<>(tasks.subList(from, to)));
+                    byte[] stored = compress ? deflate(deflater, raw) : raw;
+                    if (stored.length >= raw.length) {
+                        stored = raw; // Incompressible page: store as is
+                    }
+                    crc.reset();
+                    crc.update(stored);
+                    out.writeInt(raw.length);
+                    out.writeInt(stored.length);
+                    out.writeInt((int) crc.getValue());
+                    out.write(stored);
+                    blocks++;
+                }
+            } finally {
+                deflater.end();
+            }
+            out.writeInt(-1);
+            out.writeInt(blocks);
+            out.flush();
+            fos.getFD().sync();
+        }
+
+        // Only a verified snapshot may replace the previous one; an unreadable live file is set aside
+        if (fileIsGood && file.exists()) {
+            move(file, previousFile);
+        } else if (file.length() > 0) {
+            move(file, corruptFile);
+        }
+        move(tempFile, file);
+        syncDirectory();
+        fileIsGood = true;
+    }
+
+    // Suppress the unchecked cast warning related to file deserialization
+    @SuppressWarnings("unchecked")
+    private static void read(File source, Consumer<List<Task>> pageConsumer) throws IOException, ClassNotFoundException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source)))) {
+            in.mark(4);
+            if (in.readInt() != MAGIC) {
+                in.reset();
+                readLegacy(in, pageConsumer);
+                return;
+            }
+            CRC32 crc = new CRC32();
+            int blocks = 0;
+            while (true) {
+                int rawLength = in.readInt();
+                if (rawLength < 0) {
+                    int expectedBlocks = in.readInt();
+                    if (expectedBlocks != blocks) {
+                        throw new IOException("Snapshot has " + blocks + " blocks, expected " + expectedBlocks);
+                    }
+                    return;
+                }
+                int storedLength = in.readInt();
+                int checksum = in.readInt();
+                if (rawLength > MAX_BLOCK_BYTES || storedLength < 0 || storedLength > rawLength) {
+                    throw new IOException("Corrupt header in block " + blocks);
+                }
+                byte[] stored = new byte[storedLength];
+                in.readFully(stored);
+                crc.reset();
+                crc.update(stored);
+                if ((int) crc.getValue() != checksum) {
+                    throw new IOException("Checksum mismatch in block " + blocks);
+                }
+                byte[] raw = storedLength == rawLength ? stored : inflate(stored, rawLength);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(raw))) {
+                    pageConsumer.accept((List<Task>) ois.readObject());
+                }
+                blocks++;
+            }
+        }
+    }
+
+    // The pre-snapshot format: one serialized List<Task>
+    @SuppressWarnings("unchecked")
+    private static void readLegacy(InputStream in, Consumer<List<Task>> pageConsumer)
+            throws IOException, ClassNotFoundException {
+        ObjectInputStream ois = new ObjectInputStream(in);
+        Object obj = ois.readObject();
+        if (!(obj instanceof List)) {
+            throw new IOException("Not a task file: " + (obj == null ? "null" : obj.getClass().getName()));
+        }
+        pageConsumer.accept((List<Task>) obj);
+    }
+
+    private static byte[] serialize(Object page) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(page);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length / 2 + 64);
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            bytes.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] stored, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, length, rawLength - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != rawLength) {
+                throw new IOException("Block inflated to " + length + " bytes, expected " + rawLength);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed block: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void move(File from, File to) throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Makes the renames durable; not supported on every platform (e.g. Windows), where it is skipped
+    private void syncDirectory() {
+        Path dir = file.getAbsoluteFile().getParentFile().toPath();
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+}
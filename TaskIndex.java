@@ -0,0 +1,154 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Due-date index over the store's hot set, kept up to date as a store listener.
+// Incomplete and completed tasks are indexed apart, each as per-day buckets
+// sorted by id. Walking a range therefore yields tasks in "Nearest Date" order
+// (date, then id), and counting a range costs one step per day. Each status also
+// keeps one bucket per priority, so a priority range is counted in O(1) and the
+// query planner can start from whichever of the two ranges is smaller.
+class TaskIndex implements TaskStore.Listener {
+    private static final Comparator<Task> BY_ID = Comparator.comparingLong(Task::getId);
+
+    private final TreeMap<LocalDate, List<Task>> incomplete = new TreeMap<>();
+    private final TreeMap<LocalDate, List<Task>> completed = new TreeMap<>();
+    private final Map<Integer, Map<Long, Task>> incompleteByPriority = new HashMap<>();
+    private final Map<Integer, Map<Long, Task>> completedByPriority = new HashMap<>();
+
+    // Number of tasks with the given status due in [from, to] (either side may be null)
+    int count(boolean isCompleted, LocalDate from, LocalDate to) {
+        int count = 0;
+        for (List<Task> day : range(isCompleted, from, to).values()) {
+            count += day.size();
+        }
+        return count;
+    }
+
+    // Tasks with the given status due in [from, to], in date-then-id order
+    Iterable<Task> walk(boolean isCompleted, LocalDate from, LocalDate to) {
+        Iterable<List<Task>> days = range(isCompleted, from, to).values();
+        return () -> new Iterator<Task>() {
+            private final Iterator<List<Task>> dayIterator = days.iterator();
+            private Iterator<Task> taskIterator = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!taskIterator.hasNext() && dayIterator.hasNext()) {
+                    taskIterator = dayIterator.next().iterator();
+                }
+                return taskIterator.hasNext();
+            }
+
+            @Override
+            public Task next() {
+                hasNext();
+                return taskIterator.next();
+            }
+        };
+    }
+
+    // Number of tasks with the given status and a priority in [min, max]
+    int countByPriority(boolean isCompleted, int min, int max) {
+        int count = 0;
+        for (int priority = min; priority <= max; priority++) {
+            Map<Long, Task> bucket = (isCompleted ? completedByPriority : incompleteByPriority).get(priority);
+            count += bucket == null ? 0 : bucket.size();
+        }
+        return count;
+    }
+
+    // Tasks with the given status and a priority in [min, max], in no particular order
+    Iterable<Task> byPriority(boolean isCompleted, int min, int max) {
+        List<Collection<Task>> buckets = new ArrayList<>();
+        for (int priority = min; priority <= max; priority++) {
+            Map<Long, Task> bucket = (isCompleted ? completedByPriority : incompleteByPriority).get(priority);
+            if (bucket != null) {
+                buckets.add(bucket.values());
+            }
+        }
+        return () -> buckets.stream().flatMap(Collection::stream).iterator();
+    }
+
+    private NavigableMap<LocalDate, List<Task>> range(boolean isCompleted, LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, List<Task>> days = isCompleted ? completed : incomplete;
+        if (from == null && to == null) {
+            return days;
+        } else if (from == null) {
+            return days.headMap(to, true);
+        } else if (to == null) {
+            return days.tailMap(from, true);
+        }
+        return from.isAfter(to) ? Collections.emptyNavigableMap() : days.subMap(from, true, to, true);
+    }
+
+    // --- TaskStore.Listener ---
+
+    @Override
+    public void taskAdded(Task task) {
+        add(task.isCompleted(), task);
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        remove(task.isCompleted(), task);
+    }
+
+    @Override
+    public void taskCompletionChanged(Task task, boolean wasCompleted) {
+        remove(wasCompleted, task);
+        add(task.isCompleted(), task);
+    }
+
+    @Override
+    public void tasksCleared() {
+        incomplete.clear();
+        completed.clear();
+        incompleteByPriority.clear();
+        completedByPriority.clear();
+    }
+
+    private void add(boolean isCompleted, Task task) {
+        (isCompleted ? completedByPriority : incompleteByPriority)
+                .computeIfAbsent(task.getPriority(), p -> new HashMap<>())
+                .put(task.getId(), task);
+        List<Task> day = (isCompleted ? completed : incomplete)
+                .computeIfAbsent(task.getCompletionDate(), d -> new ArrayList<>());
+        // New and loaded tasks almost always arrive in id order, so this is usually an append
+        if (day.isEmpty() || day.get(day.size() - 1).getId() < task.getId()) {
+            day.add(task);
+        } else {
+            int index = Collections.binarySearch(day, task, BY_ID);
+            if (index < 0) {
+                day.add(-index - 1, task);
+            }
+        }
+    }
+
+    private void remove(boolean isCompleted, Task task) {
+        Map<Long, Task> bucket = (isCompleted ? completedByPriority : incompleteByPriority).get(task.getPriority());
+        if (bucket != null) {
+            bucket.remove(task.getId());
+        }
+        TreeMap<LocalDate, List<Task>> days = isCompleted ? completed : incomplete;
+        List<Task> day = days.get(task.getCompletionDate());
+        if (day == null) {
+            return;
+        }
+        int index = Collections.binarySearch(day, task, BY_ID);
+        if (index >= 0) {
+            day.remove(index);
+            if (day.isEmpty()) {
+                days.remove(task.getCompletionDate());
+            }
+        }
+    }
+}
@@ -0,0 +1,407 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+// Query over tasks, built from the search syntax or programmatically. Clauses
+// (all must match; later status/sort clauses override earlier ones):
+//
+//   status:all|completed|done|incomplete|open
+//   priority:high  p:>=2  p:low..medium            (1=Low, 2=Medium, 3=High)
+//   due:2026-10-31  due:today|tomorrow|yesterday|week|month  due:+7 (next 7 days)
+//   due:<2026-11-01  due:>=today  due:2026-10-01..2026-10-31  due:..today
+//   overdue                                         (incomplete and due before today)
+//   sort:none|date|priority|priority-desc|priority-asc
+//   any other word, or "quoted phrase"              (case-insensitive substring)
+//
+// e.g. `p:high due:week invoice`. TaskStore.query() plans and runs it.
+class TaskQuery {
+    enum Status { ALL, COMPLETED, INCOMPLETE }
+
+    enum Sort { NONE, DATE, PRIORITY_DESC, PRIORITY_ASC }
+
+    private Status status = Status.ALL;
+    private Sort sort = Sort.NONE;
+    private int minPriority = 1;
+    private int maxPriority = 3;
+    private LocalDate dueFrom; // Inclusive, null = unbounded
+    private LocalDate dueTo; // Inclusive, null = unbounded
+    private final List<String> terms = new ArrayList<>();
+
+    static TaskQuery parse(String text, LocalDate today) {
+        return new TaskQuery().apply(text, today);
+    }
+
+    // =================================================================
+    // BUILDING
+    // =================================================================
+
+    TaskQuery status(Status status) {
+        this.status = status;
+        return this;
+    }
+
+    TaskQuery sort(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    // Narrows the priority range (clauses intersect)
+    TaskQuery priority(int min, int max) {
+        minPriority = Math.max(minPriority, min);
+        maxPriority = Math.min(maxPriority, max);
+        return this;
+    }
+
+    // Narrows the due-date range (clauses intersect); null leaves that side open
+    TaskQuery due(LocalDate from, LocalDate to) {
+        if (from != null && (dueFrom == null || from.isAfter(dueFrom))) {
+            dueFrom = from;
+        }
+        if (to != null && (dueTo == null || to.isBefore(dueTo))) {
+            dueTo = to;
+        }
+        return this;
+    }
+
+    TaskQuery text(String term) {
+        if (!term.isBlank()) {
+            terms.add(term.trim().toLowerCase());
+        }
+        return this;
+    }
+
+    // Adds the clauses in text; throws IllegalArgumentException on a malformed clause
+    TaskQuery apply(String text, LocalDate today) {
+        for (String token : tokenize(text)) {
+            if (token.startsWith("\"")) {
+                text(token.substring(1));
+                continue;
+            }
+            int colon = token.indexOf(':');
+            String key = colon < 0 ? token.toLowerCase() : token.substring(0, colon).toLowerCase();
+            String value = colon < 0 ? "" : token.substring(colon + 1).toLowerCase();
+
+            if (colon < 0 && key.equals("overdue")) {
+                status(Status.INCOMPLETE).due(null, today.minusDays(1));
+                continue;
+            }
+            switch (colon < 0 ? "" : key) {
+                case "status":
+                case "is":
+                    if (value.equals("overdue")) {
+                        status(Status.INCOMPLETE).due(null, today.minusDays(1));
+                    } else {
+                        status(parseStatus(value));
+                    }
+                    break;
+                case "priority":
+                case "p":
+                    applyPriority(value);
+                    break;
+                case "due":
+                    applyDue(value, today);
+                    break;
+                case "sort":
+                    sort(parseSort(value));
+                    break;
+                default:
+                    text(token); // Plain word (or an unknown key, e.g. "re:")
+                    break;
+            }
+        }
+        return this;
+    }
+
+    // =================================================================
+    // ACCESSORS
+    // =================================================================
+
+    Status getStatus() {
+        return status;
+    }
+
+    Sort getSort() {
+        return sort;
+    }
+
+    int getMinPriority() {
+        return minPriority;
+    }
+
+    int getMaxPriority() {
+        return maxPriority;
+    }
+
+    boolean restrictsPriority() {
+        return minPriority > 1 || maxPriority < 3;
+    }
+
+    LocalDate getDueFrom() {
+        return dueFrom;
+    }
+
+    LocalDate getDueTo() {
+        return dueTo;
+    }
+
+    boolean includesCompleted() {
+        return status != Status.INCOMPLETE;
+    }
+
+    boolean includesIncomplete() {
+        return status != Status.COMPLETED;
+    }
+
+    // Contradictory clauses (e.g. p:high p:low): nothing to evaluate
+    boolean matchesNothing() {
+        return minPriority > maxPriority || (dueFrom != null && dueTo != null && dueFrom.isAfter(dueTo));
+    }
+
+    // =================================================================
+    // COMPILING
+    // =================================================================
+
+    // One predicate per active clause, cheapest first, so most tasks are rejected before
+    // the text terms are looked at; inactive clauses cost nothing
+    Predicate<Task> predicate() {
+        return compile(true);
+    }
+
+    // The clauses an occurrence of a series matches exactly when the series does: all but
+    // the due range, since status, priority and text are the same for every occurrence
+    Predicate<Task> seriesPredicate() {
+        return compile(false);
+    }
+
+    private Predicate<Task> compile(boolean withDue) {
+        List<Predicate<Task>> clauses = new ArrayList<>();
+        if (status == Status.COMPLETED) {
+            clauses.add(Task::isCompleted);
+        } else if (status == Status.INCOMPLETE) {
+            clauses.add(task -> !task.isCompleted());
+        }
+        if (minPriority == maxPriority) {
+            int priority = minPriority;
+            clauses.add(task -> task.getPriority() == priority);
+        } else if (minPriority > 1 || maxPriority < 3) {
+            int min = minPriority;
+            int max = maxPriority;
+            clauses.add(task -> task.getPriority() >= min && task.getPriority() <= max);
+        }
+        if (withDue && dueFrom != null) {
+            LocalDate from = dueFrom;
+            clauses.add(task -> !task.getCompletionDate().isBefore(from));
+        }
+        if (withDue && dueTo != null) {
+            LocalDate to = dueTo;
+            clauses.add(task -> !task.getCompletionDate().isAfter(to));
+        }
+        for (String term : terms) {
+            clauses.add(task -> containsIgnoreCase(task.getValue(), term));
+        }
+
+        switch (clauses.size()) {
+            case 0:
+                return task -> true;
+            case 1:
+                return clauses.get(0);
+            case 2: {
+                Predicate<Task> first = clauses.get(0);
+                Predicate<Task> second = clauses.get(1);
+                return task -> first.test(task) && second.test(task);
+            }
+            default: {
+                List<Predicate<Task>> all = List.copyOf(clauses);
+                return task -> {
+                    for (Predicate<Task> clause : all) {
+                        if (!clause.test(task)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+        }
+    }
+
+    // Sort order with ties broken by id (then date, as occurrences of a series share its id),
+    // so consecutive pages line up; null keeps insertion order
+    Comparator<Task> comparator() {
+        switch (sort) {
+            case DATE:
+                return Task.getComparatorByDate().thenComparing(Task::getId);
+            case PRIORITY_DESC:
+                // Highest priority (3) first
+                return Comparator.comparing(Task::getPriority).reversed().thenComparing(Task::getId)
+                        .thenComparing(Task::getCompletionDate);
+            case PRIORITY_ASC:
+                // Lowest priority (1) first
+                return Comparator.comparing(Task::getPriority).thenComparing(Task::getId)
+                        .thenComparing(Task::getCompletionDate);
+            default:
+                return null;
+        }
+    }
+
+    // =================================================================
+    // PARSING
+    // =================================================================
+
+    static Status parseStatus(String value) {
+        switch (value.toLowerCase()) {
+            case "all":
+                return Status.ALL;
+            case "completed":
+            case "done":
+                return Status.COMPLETED;
+            case "incomplete":
+            case "open":
+                return Status.INCOMPLETE;
+            default:
+                throw new IllegalArgumentException("Unknown status '" + value + "'");
+        }
+    }
+
+    static Sort parseSort(String value) {
+        switch (value.toLowerCase()) {
+            case "none":
+                return Sort.NONE;
+            case "date":
+                return Sort.DATE;
+            case "priority":
+            case "priority-desc":
+                return Sort.PRIORITY_DESC;
+            case "priority-asc":
+                return Sort.PRIORITY_ASC;
+            default:
+                throw new IllegalArgumentException("Unknown sort '" + value + "'");
+        }
+    }
+
+    private void applyPriority(String value) {
+        if (value.contains("..")) {
+            String[] bounds = value.split("\\.\\.", -1);
+            priority(bounds[0].isEmpty() ? 1 : parsePriority(bounds[0]),
+                    bounds[1].isEmpty() ? 3 : parsePriority(bounds[1]));
+        } else if (value.startsWith(">=")) {
+            priority(parsePriority(value.substring(2)), 3);
+        } else if (value.startsWith("<=")) {
+            priority(1, parsePriority(value.substring(2)));
+        } else if (value.startsWith(">")) {
+            priority(parsePriority(value.substring(1)) + 1, 3);
+        } else if (value.startsWith("<")) {
+            priority(1, parsePriority(value.substring(1)) - 1);
+        } else {
+            int priority = parsePriority(value);
+            priority(priority, priority);
+        }
+    }
+
+    private static int parsePriority(String value) {
+        switch (value) {
+            case "1":
+            case "low":
+                return 1;
+            case "2":
+            case "medium":
+                return 2;
+            case "3":
+            case "high":
+                return 3;
+            default:
+                throw new IllegalArgumentException("Unknown priority '" + value + "' (use low, medium, high or 1-3)");
+        }
+    }
+
+    private void applyDue(String value, LocalDate today) {
+        if (value.contains("..")) {
+            String[] bounds = value.split("\\.\\.", -1);
+            due(bounds[0].isEmpty() ? null : parseDay(bounds[0], today),
+                    bounds[1].isEmpty() ? null : parseDay(bounds[1], today));
+        } else if (value.startsWith(">=")) {
+            due(parseDay(value.substring(2), today), null);
+        } else if (value.startsWith("<=")) {
+            due(null, parseDay(value.substring(2), today));
+        } else if (value.startsWith(">")) {
+            due(parseDay(value.substring(1), today).plusDays(1), null);
+        } else if (value.startsWith("<")) {
+            due(null, parseDay(value.substring(1), today).minusDays(1));
+        } else if (value.startsWith("+")) {
+            due(today, today.plusDays(parseDays(value.substring(1))));
+        } else if (value.equals("week")) {
+            due(today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                    today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)));
+        } else if (value.equals("month")) {
+            due(today.withDayOfMonth(1), today.with(TemporalAdjusters.lastDayOfMonth()));
+        } else {
+            LocalDate day = parseDay(value, today);
+            due(day, day);
+        }
+    }
+
+    private static LocalDate parseDay(String value, LocalDate today) {
+        switch (value) {
+            case "today":
+                return today;
+            case "tomorrow":
+                return today.plusDays(1);
+            case "yesterday":
+                return today.minusDays(1);
+            default:
+                try {
+                    return LocalDate.parse(value);
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Invalid date '" + value + "' (use YYYY-MM-DD, today, tomorrow...)");
+                }
+        }
+    }
+
+    private static int parseDays(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid day count '" + value + "'");
+        }
+    }
+
+    // Whitespace-separated tokens; a "quoted phrase" is one token, returned with its leading quote
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                i++;
+            } else if (text.charAt(i) == '"') {
+                int end = text.indexOf('"', i + 1);
+                if (end < 0) {
+                    end = text.length(); // Unterminated while typing: quote to the end
+                }
+                tokens.add(text.substring(i, end));
+                i = end + 1;
+            } else {
+                int start = i;
+                while (i < text.length() && !Character.isWhitespace(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    // Substring match without lower-casing (and so allocating) every task's text
+    private static boolean containsIgnoreCase(String text, String lowerTerm) {
+        int last = text.length() - lowerTerm.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, lowerTerm, 0, lowerTerm.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,593 @@
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// In-memory task store backed by a TaskFile. The file is read once (in pages)
+// and mutations are written back in the background, so the UI never re-reads
+// the file. All methods are thread-safe; the UI and the HTTP API share one store.
+// Tasks completed long ago are moved to a TaskArchive, which keeps the hot file
+// proportional to active work; queries only touch the archive when asked to.
+// A recurring series is stored once; its occurrences become tasks of their own
+// only when one is completed or edited.
+class TaskStore {
+    // Order used on disk: incomplete tasks by nearest date, then completed ones, so the
+    // first page read is the first screenful of the default view.
+    private static final Comparator<Task> FILE_ORDER = Task.getComparatorByDate().thenComparing(Task::getId);
+    // Changes are batched for this long before a snapshot is written
+    private static final long SAVE_DELAY_MS = 500;
+
+    // Change notifications, delivered while the store is locked; keep them short and
+    // never call back into a lock that can be held while waiting on the store.
+    // An update is reported as taskRemoved(old) followed by taskAdded(new). Listeners
+    // track the hot set: archiving reports taskRemoved, restoring from the archive taskAdded.
+    interface Listener {
+        void taskAdded(Task task); // Also called for every task read from the file
+
+        void taskRemoved(Task task);
+
+        void taskCompletionChanged(Task task, boolean wasCompleted);
+
+        void tasksCleared();
+    }
+
+    private final TaskFile taskFile;
+    private final TaskArchive archive;
+    private final Map<Long, Task> tasks = new LinkedHashMap<>(); // Keeps insertion order
+    private final TaskIndex index = new TaskIndex();
+    private final SeriesIndex series = new SeriesIndex();
+    private final TaskCounters counters;
+
+    // One thread, so snapshots are written in order and an older one never overwrites a newer one
+    private final ScheduledExecutorService saver = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "task-saver");
+        thread.setDaemon(true); // Pending writes are flushed from a shutdown hook
+        return thread;
+    });
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private long maxId = 0;
+    private long version = 0; // Bumped on every change, so readers can skip redundant refreshes
+    private boolean loaded = false;
+    private boolean dirty = false; // Mutated before loading finished
+    private boolean savePending = false;
+    private final Set<Long> addedWhileLoading = new HashSet<>(); // Survive a fallback to the previous snapshot
+    // Restored from the archive into the hot set. Each id's tombstone is appended once a snapshot
+    // written after the restore is on disk, so a crash in between never loses the task.
+    private final Set<Long> unarchived = new HashSet<>();
+
+    TaskStore(String fileName, String archiveFileName) {
+        this(fileName, archiveFileName, Clock.systemDefaultZone());
+    }
+
+    // clock decides what "today" is for the dashboard counts
+    TaskStore(String fileName, String archiveFileName, Clock clock) {
+        this.taskFile = new TaskFile(fileName);
+        this.archive = new TaskArchive(archiveFileName);
+        this.counters = new TaskCounters(index, clock);
+        listeners.add(index); // First, so the index is current before anyone else is told
+        listeners.add(series);
+        listeners.add(counters);
+    }
+
+    // Reads the file page by page, handing each page to pageConsumer once it is in the store
+    void load(Consumer<List<Task>> pageConsumer) {
+        try {
+            taskFile.readPages(page -> {
+                addLoaded(page);
+                pageConsumer.accept(page);
+            }, this::discardLoaded);
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error loading tasks: " + e.getMessage());
+        }
+        boolean saveNow;
+        synchronized (this) {
+            loaded = true;
+            saveNow = dirty;
+            addedWhileLoading.clear();
+        }
+        if (saveNow) {
+            save();
+        }
+    }
+
+    private synchronized void addLoaded(List<Task> page) {
+        for (Task task : page) {
+            // A task added during loading wins over a stale copy from the file
+            if (tasks.putIfAbsent(task.getId(), task) == null) {
+                listeners.forEach(l -> l.taskAdded(task));
+            }
+            maxId = Math.max(maxId, task.getId());
+        }
+        version++;
+    }
+
+    // Drops the tasks read from a snapshot that turned out to be corrupt
+    private synchronized void discardLoaded() {
+        List<Task> discarded = filter(task -> !addedWhileLoading.contains(task.getId()));
+        for (Task task : discarded) {
+            tasks.remove(task.getId());
+            listeners.forEach(l -> l.taskRemoved(task));
+        }
+        version++;
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    synchronized int size() {
+        return tasks.size();
+    }
+
+    synchronized List<Task> getTasks() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    synchronized Task find(long id) {
+        return tasks.get(id);
+    }
+
+    synchronized Task find(long id, boolean includeArchived) {
+        Task task = tasks.get(id);
+        return task == null && includeArchived && !unarchived.contains(id) ? archive.find(id) : task;
+    }
+
+    // Dashboard counts; O(1) apart from the first read of the archive size and after midnight
+    synchronized TaskCounters.Counts getCounts() {
+        return counters.snapshot(archive.size() - unarchived.size());
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    // Every task matching filter, in insertion order
+    synchronized List<Task> filter(Predicate<Task> filter) {
+        List<Task> result = new ArrayList<>();
+        for (Task task : tasks.values()) {
+            if (filter.test(task)) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    // The first `limit` tasks matching query, in its sort order. The plan, cheapest first:
+    //  1. Sorted by date over one status: walk the due-date index in order and stop after
+    //     `limit` matches; rows come out already sorted. Skipped when the query's priority
+    //     range is so narrow that reading its bucket whole is cheaper than the expected walk.
+    //  2. Otherwise pick the smallest source for the hot set by count: the index's due-date
+    //     range, its priority buckets or a full scan, and select the top rows from it with a
+    //     bounded heap. Unsorted queries always scan, since only the scan keeps insertion order.
+    // Archived tasks (all completed) are only read when the query can match completed tasks.
+    // Series are expanded into their occurrences within the query's due range. Sorted by date,
+    // occurrences are merged in lazily and the walk still stops after `limit` rows; in any
+    // other order an open-ended range shows each series once, at its next occurrence.
+    synchronized List<Task> query(TaskQuery query, int limit) {
+        if (query.matchesNothing()) {
+            return new ArrayList<>();
+        }
+        Predicate<Task> predicate = query.predicate();
+        Predicate<Task> seriesPredicate = query.seriesPredicate();
+        Comparator<Task> comparator = query.comparator();
+        LocalDate from = query.getDueFrom();
+        LocalDate to = query.getDueTo();
+        boolean withArchive = query.includesCompleted() && !archive.isEmpty();
+        boolean withSeries = query.includesIncomplete() && !series.isEmpty();
+
+        int min = query.getMinPriority();
+        int max = query.getMaxPriority();
+        int priorityCount = query.restrictsPriority()
+                ? countByStatus(query, isCompleted -> index.countByPriority(isCompleted, min, max))
+                : tasks.size();
+
+        if (query.getSort() == TaskQuery.Sort.DATE && query.getStatus() != TaskQuery.Status.ALL && !withArchive) {
+            boolean isCompleted = query.includesCompleted();
+            // Assuming priority and date are independent, the walk reads about limit / selectivity rows
+            int statusCount = index.countByPriority(isCompleted, 1, 3);
+            long walkCost = query.restrictsPriority()
+                    ? Math.min(index.count(isCompleted, from, to), (long) limit * statusCount / Math.max(1, priorityCount))
+                    : 0;
+            if (priorityCount >= walkCost) {
+                Iterable<Task> walk = index.walk(isCompleted, from, to);
+                return TopK.first(withSeries ? series.merge(walk, from, to, seriesPredicate) : walk, predicate, limit);
+            }
+        }
+
+        Iterable<Task> hot = tasks.values();
+        if (comparator != null) {
+            int dateCount = countByStatus(query, isCompleted -> index.count(isCompleted, from, to));
+            if (priorityCount < dateCount && priorityCount < tasks.size()) {
+                hot = byStatus(query, isCompleted -> index.byPriority(isCompleted, min, max));
+            } else if (dateCount < tasks.size()) {
+                hot = byStatus(query, isCompleted -> index.walk(isCompleted, from, to));
+            }
+        }
+
+        Iterable<Task> source = hot;
+        if (withArchive) {
+            // Archived first (they are the oldest); a copy still in the hot file wins
+            Iterable<Task> hotSource = hot;
+            source = () -> Stream.concat(
+                    archive.getTasks().stream()
+                            .filter(task -> !tasks.containsKey(task.getId()) && !unarchived.contains(task.getId())),
+                    stream(hotSource)).iterator();
+        }
+        if (withSeries && query.getSort() == TaskQuery.Sort.DATE) {
+            // The first `limit` one-off tasks, then the occurrences merged into them in order
+            List<Task> oneOff = TopK.select(source, task -> !task.isRecurring() && predicate.test(task), comparator, limit);
+            return TopK.first(series.merge(oneOff, from, to, seriesPredicate), predicate, limit);
+        } else if (withSeries) {
+            source = series.expand(source, from, to, seriesPredicate);
+        }
+        if (comparator == null) {
+            return TopK.first(source, predicate, limit);
+        }
+        return TopK.select(source, predicate, comparator, limit);
+    }
+
+    // The `limit` incomplete tasks with the nearest due dates, nearest first
+    List<Task> nextDeadlines(int limit) {
+        return query(new TaskQuery().status(TaskQuery.Status.INCOMPLETE).sort(TaskQuery.Sort.DATE), limit);
+    }
+
+    // Sum of an index count over the statuses query can match
+    private static int countByStatus(TaskQuery query, ToIntFunction<Boolean> count) {
+        return (query.includesIncomplete() ? count.applyAsInt(false) : 0) + (query.includesCompleted() ? count.applyAsInt(true) : 0);
+    }
+
+    // An index source over the statuses query can match, incomplete first
+    private static Iterable<Task> byStatus(TaskQuery query, Function<Boolean, Iterable<Task>> source) {
+        if (!query.includesCompleted()) {
+            return source.apply(false);
+        } else if (!query.includesIncomplete()) {
+            return source.apply(true);
+        }
+        Iterable<Task> incomplete = source.apply(false);
+        Iterable<Task> completed = source.apply(true);
+        return () -> Stream.concat(stream(incomplete), stream(completed)).iterator();
+    }
+
+    private static Stream<Task> stream(Iterable<Task> tasks) {
+        return StreamSupport.stream(tasks.spliterator(), false);
+    }
+
+    Task add(String value, int priority, LocalDate completionDate) {
+        return add(value, priority, completionDate, null);
+    }
+
+    // With a recurrence, adds a series whose first occurrence is due on completionDate
+    Task add(String value, int priority, LocalDate completionDate, Recurrence recurrence) {
+        Task task;
+        synchronized (this) {
+            task = new Task(nextId(), value, priority, completionDate,
+                    recurrence == null ? null : recurrence.startingOn(completionDate, null));
+            tasks.put(task.getId(), task);
+            if (!loaded) {
+                addedWhileLoading.add(task.getId());
+            }
+            version++;
+            listeners.forEach(l -> l.taskAdded(task));
+        }
+        save();
+        return task;
+    }
+
+    // Replaces the task with a new instance (moved to the end), keeping its completion status.
+    // A series keeps its rule, restarted from completionDate; occurrences from there on that are
+    // already tasks of their own stay skipped. Throws IllegalArgumentException if that leaves the
+    // series no pending occurrence (e.g. completionDate is after its end date).
+    Task update(long id, String value, int priority, LocalDate completionDate) {
+        return update(id, value, priority, completionDate, null, true);
+    }
+
+    // As above, but sets the repeat rule: null makes the task a one-off
+    Task update(long id, String value, int priority, LocalDate completionDate, Recurrence recurrence) {
+        return update(id, value, priority, completionDate, recurrence, false);
+    }
+
+    private Task update(long id, String value, int priority, LocalDate completionDate, Recurrence recurrence,
+            boolean keepRecurrence) {
+        Task updatedTask;
+        synchronized (this) {
+            restoreFromArchive(id);
+            Task oldTask = tasks.get(id);
+            if (oldTask == null) {
+                return null;
+            }
+            Recurrence rule = keepRecurrence ? oldTask.getRecurrence() : recurrence;
+            if (rule == null) {
+                updatedTask = new Task(id, value, priority, completionDate);
+            } else {
+                Recurrence newRule = rule.startingOn(completionDate, oldTask.getRecurrence());
+                LocalDate head = newRule.nextOnOrAfter(completionDate);
+                if (head == null) {
+                    throw new IllegalArgumentException(newRule.getUntil() != null && completionDate.isAfter(newRule.getUntil())
+                            ? "Repeat end date " + newRule.getUntil() + " is before the first date " + completionDate
+                            : "The series has no pending occurrence on or after " + completionDate);
+                }
+                updatedTask = new Task(id, value, priority, head, newRule);
+            }
+            // A series is never completed, only its occurrences are
+            updatedTask.setCompleted(oldTask.isCompleted() && rule == null);
+            tasks.remove(id);
+            tasks.put(id, updatedTask);
+            if (!loaded) {
+                addedWhileLoading.add(id);
+            }
+            version++;
+            listeners.forEach(l -> {
+                l.taskRemoved(oldTask);
+                l.taskAdded(updatedTask);
+            });
+        }
+        save();
+        return updatedTask;
+    }
+
+    // Completing a series completes its next occurrence
+    boolean setCompleted(long id, boolean completed) {
+        synchronized (this) {
+            restoreFromArchive(id);
+            Task task = tasks.get(id);
+            if (task == null) {
+                return false;
+            }
+            if (task.isRecurring()) {
+                if (!completed) {
+                    return true; // The series itself is never completed, so there is nothing to reopen
+                }
+                LocalDate date = task.getCompletionDate();
+                materialize(task, date, task.getValue(), task.getPriority(), date, true);
+            } else {
+                boolean wasCompleted = task.isCompleted();
+                task.setCompleted(completed);
+                version++;
+                listeners.forEach(l -> l.taskCompletionChanged(task, wasCompleted));
+            }
+        }
+        save();
+        return true;
+    }
+
+    // Completes the occurrence of series `id` due on date; returns the task it became, or null
+    // if the series has no pending occurrence that day
+    Task completeOccurrence(long id, LocalDate date) {
+        Task task;
+        synchronized (this) {
+            Task seriesTask = pendingSeries(id, date);
+            if (seriesTask == null) {
+                return null;
+            }
+            task = materialize(seriesTask, date, seriesTask.getValue(), seriesTask.getPriority(), date, true);
+        }
+        save();
+        return task;
+    }
+
+    // Edits one occurrence of series `id`: it becomes a task of its own with the new fields and
+    // leaves the series. Returns that task, or null if the series has no pending occurrence on date.
+    Task updateOccurrence(long id, LocalDate date, String value, int priority, LocalDate completionDate) {
+        Task task;
+        synchronized (this) {
+            Task seriesTask = pendingSeries(id, date);
+            if (seriesTask == null) {
+                return null;
+            }
+            task = materialize(seriesTask, date, value, priority, completionDate, false);
+        }
+        save();
+        return task;
+    }
+
+    // The series `id` if it has a pending occurrence on date (caller holds the lock)
+    private Task pendingSeries(long id, LocalDate date) {
+        Task seriesTask = tasks.get(id);
+        if (seriesTask == null || !seriesTask.isRecurring() || date.isBefore(seriesTask.getCompletionDate())
+                || !seriesTask.getRecurrence().occursOn(date)) {
+            return null;
+        }
+        return seriesTask;
+    }
+
+    // Turns the occurrence of seriesTask on date into a task of its own and moves the series past
+    // it; the series is removed once no occurrence is left (caller holds the lock)
+    private Task materialize(Task seriesTask, LocalDate date, String value, int priority, LocalDate completionDate,
+            boolean completed) {
+        Task task = new Task(nextId(), value, priority, completionDate);
+        task.setCompleted(completed);
+        tasks.put(task.getId(), task);
+
+        Recurrence rule = seriesTask.getRecurrence();
+        LocalDate head = seriesTask.getCompletionDate();
+        LocalDate next = date.equals(head) ? rule.nextOnOrAfter(date.plusDays(1)) : head;
+        Task nextSeries = next == null ? null
+                : new Task(seriesTask.getId(), seriesTask.getValue(), seriesTask.getPriority(), next,
+                        rule.without(date, next));
+        if (nextSeries == null) {
+            tasks.remove(seriesTask.getId());
+        } else {
+            tasks.put(seriesTask.getId(), nextSeries); // Keeps the series' place in insertion order
+        }
+        if (!loaded) {
+            addedWhileLoading.add(task.getId());
+            addedWhileLoading.add(seriesTask.getId());
+        }
+        version++;
+        listeners.forEach(l -> {
+            l.taskAdded(task);
+            l.taskRemoved(seriesTask);
+            if (nextSeries != null) {
+                l.taskAdded(nextSeries);
+            }
+        });
+        return task;
+    }
+
+    boolean remove(long id) {
+        synchronized (this) {
+            restoreFromArchive(id);
+            Task task = tasks.remove(id);
+            if (task == null) {
+                return false;
+            }
+            version++;
+            listeners.forEach(l -> l.taskRemoved(task));
+        }
+        save();
+        return true;
+    }
+
+    void clear() {
+        synchronized (this) {
+            tasks.clear();
+            archive.clear();
+            unarchived.clear();
+            version++;
+            listeners.forEach(Listener::tasksCleared);
+        }
+        save();
+    }
+
+    // Moves tasks completed before cutoff from the hot file to the archive; returns how many
+    int archiveCompletedBefore(LocalDate cutoff) {
+        List<Task> archived;
+        synchronized (this) {
+            if (!loaded) {
+                return 0; // Only part of the hot file is in memory
+            }
+            archived = filter(task -> task.isCompleted() && task.getCompletedAt().isBefore(cutoff));
+            if (archived.isEmpty()) {
+                return 0;
+            }
+            try {
+                // Archive first: after a crash in between, the hot copy simply wins
+                archive.add(archived);
+            } catch (IOException e) {
+                System.err.println("Error archiving tasks: " + e.getMessage());
+                return 0;
+            }
+            for (Task task : archived) {
+                tasks.remove(task.getId());
+                unarchived.remove(task.getId()); // Archived again: the new frame supersedes the old one
+                listeners.forEach(l -> l.taskRemoved(task));
+            }
+            version++;
+        }
+        save();
+        return archived.size();
+    }
+
+    // Edits to an archived task bring it back into the hot set (caller holds the lock). The
+    // archive keeps its copy until the next snapshot is written; see writeTombstones().
+    private void restoreFromArchive(long id) {
+        if (tasks.containsKey(id) || unarchived.contains(id)) {
+            return;
+        }
+        Task task = archive.find(id);
+        if (task == null) {
+            return;
+        }
+        unarchived.add(id);
+        tasks.put(id, task);
+        listeners.forEach(l -> l.taskAdded(task));
+    }
+
+    private long nextId() {
+        // Ensure ID is greater than any existing ID for uniqueness upon creation
+        long id = Math.max(maxId + 1, System.currentTimeMillis() + Math.round(Math.random() * 1000));
+        maxId = id;
+        return id;
+    }
+
+    // Queues a snapshot write. Writes happen on the saver thread SAVE_DELAY_MS after the first
+    // unsaved change, and coalesce: however many changes arrive meanwhile, one write captures them.
+    private void save() {
+        synchronized (this) {
+            if (!loaded) {
+                // Writing now would truncate the tasks still on disk
+                dirty = true;
+                return;
+            }
+            if (savePending) {
+                return;
+            }
+            savePending = true;
+        }
+        saver.schedule(this::writeSnapshot, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Blocks until every change made so far is on disk
+    void flush() {
+        try {
+            saver.submit(this::writeSnapshot).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error saving tasks: " + e.getMessage());
+        }
+    }
+
+    private void writeSnapshot() {
+        List<Task> incomplete = new ArrayList<>();
+        List<Task> completed = new ArrayList<>();
+        List<Long> tombstones;
+        synchronized (this) {
+            if (!savePending) {
+                return; // Already written by flush()
+            }
+            savePending = false;
+            tombstones = new ArrayList<>(unarchived);
+            // Split by status while locked: completion can change under a sort running unlocked
+            for (Task task : tasks.values()) {
+                (task.isCompleted() ? completed : incomplete).add(task);
+            }
+        }
+        incomplete.sort(FILE_ORDER);
+        completed.sort(FILE_ORDER);
+        incomplete.addAll(completed);
+        try {
+            taskFile.write(incomplete);
+        } catch (IOException e) {
+            System.err.println("Error saving tasks: " + e.getMessage());
+            return;
+        }
+        writeTombstones(tombstones);
+    }
+
+    // Drops tasks restored before the snapshot just written from the archive: the hot file has
+    // them now (or they were deleted since). Hot file first, mirroring archiveCompletedBefore().
+    private synchronized void writeTombstones(List<Long> ids) {
+        ids.retainAll(unarchived); // Not those archived again meanwhile
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            archive.remove(ids);
+            unarchived.removeAll(ids);
+        } catch (IOException e) {
+            System.err.println("Error updating archive: " + e.getMessage()); // Retried after the next snapshot
+        }
+    }
+}
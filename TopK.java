@@ -0,0 +1,52 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+// Bounded-heap selection: the first k matching items in comparator order,
+// found in O(n log k) time while holding at most k items, instead of
+// filtering and fully sorting the whole list.
+class TopK {
+
+    private TopK() {
+    }
+
+    static <T> List<T> select(Iterable<T> items, Predicate<? super T> filter, Comparator<? super T> comparator, int k) {
+        List<T> result = new ArrayList<>();
+        if (k <= 0) {
+            return result;
+        }
+        // Max-heap on the comparator: the root is the worst item kept so far. It grows as items
+        // arrive rather than being sized to k, which callers may pass as a huge bound.
+        PriorityQueue<T> heap = new PriorityQueue<>(comparator.reversed());
+        for (T item : items) {
+            if (!filter.test(item)) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (comparator.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        result.addAll(heap);
+        result.sort(comparator);
+        return result;
+    }
+
+    // Without an ordering the first k matches in iteration order are the answer
+    static <T> List<T> first(Iterable<T> items, Predicate<? super T> filter, int k) {
+        List<T> result = new ArrayList<>();
+        for (T item : items) {
+            if (result.size() >= k) {
+                break;
+            }
+            if (filter.test(item)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+}